@@ -0,0 +1,63 @@
+package org.example.demo.benchmarks;
+
+import org.example.demo.model.DatabaseService;
+import org.example.demo.model.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// JDBC path against a throw-away H2 file database in the temp directory.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseServiceBenchmark {
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private Path directory;
+    private DatabaseService dbService;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("memory-bench");
+        dbService = new DatabaseService("jdbc:h2:" + directory.resolve("memory-game").toAbsolutePath());
+        for (int i = 0; i < rows; i++) {
+            dbService.savePlayer(new Player(0, "Player " + i, i % 100));
+        }
+        player = new Player("Benchmark");
+        dbService.savePlayer(player);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        dbService.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Player savePlayer() {
+        player.incrementScore();
+        dbService.savePlayer(player);
+        return player;
+    }
+
+    @Benchmark
+    public List<Player> loadPlayers() {
+        return dbService.loadPlayers();
+    }
+}
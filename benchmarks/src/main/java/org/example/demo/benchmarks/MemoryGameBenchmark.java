@@ -0,0 +1,85 @@
+package org.example.demo.benchmarks;
+
+import org.example.demo.model.MemoryGame;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Model hot paths: dealing a board, playing turns and reading the flipped cards.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryGameBenchmark {
+
+    @Param({"8", "32", "512", "8192"})
+    public int pairs;
+
+    @Param({"false", "true"})
+    public boolean compactBoard;
+
+    private MemoryGame game;
+    private int first;
+    private int mismatch;
+
+    @Setup
+    public void setUp() {
+        game = new MemoryGame(compactBoard);
+        game.initializeCards(pairs, 42L);
+
+        // Pick two cards that never match, so a turn always ends with a flip back
+        first = 0;
+        mismatch = 1;
+        while (game.getEngine().getValue(mismatch) == game.getEngine().getValue(first)) {
+            mismatch++;
+        }
+    }
+
+    @Benchmark
+    public MemoryGame initializeCards() {
+        game.initializeCards(pairs, 42L);
+        return game;
+    }
+
+    // One mismatching turn: two flips, tries/player update and the flip back
+    @Benchmark
+    public boolean mismatchTurn() {
+        game.flipCard(first);
+        game.flipCard(mismatch);
+        game.flipCardsBack();
+        return game.isWaitingForFlipBack();
+    }
+
+    // Board with 0, 1 or 2 cards open, for reading the flipped cards. It is
+    // dealt here, with the benchmark's parameters, so no other setup resets it.
+    @State(Scope.Thread)
+    public static class OpenCards {
+        @Param({"0", "1", "2"})
+        public int openCards;
+
+        private MemoryGame game;
+
+        @Setup
+        public void setUp(MemoryGameBenchmark benchmark) {
+            game = new MemoryGame(benchmark.compactBoard);
+            game.initializeCards(benchmark.pairs, 42L);
+            if (openCards > 0) {
+                game.flipCard(0);
+            }
+            if (openCards > 1) {
+                int second = 1;
+                while (game.getEngine().getValue(second) == game.getEngine().getValue(0)) {
+                    second++;
+                }
+                game.flipCard(second);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] getFlippedCardIndices(OpenCards open) {
+        return open.game.getFlippedCardIndices();
+    }
+}
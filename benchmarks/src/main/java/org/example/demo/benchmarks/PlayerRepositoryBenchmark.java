@@ -0,0 +1,125 @@
+package org.example.demo.benchmarks;
+
+import org.example.demo.model.LeaderboardEntry;
+import org.example.demo.model.Player;
+import org.example.demo.model.PlayerRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Compares the player store backends (-p store=jdbc,mvstore,memory) on a
+// throw-away store in the temp directory: synchronous saves, leaderboard
+// and full-table reads, and opening a store that already holds the rows.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerRepositoryBenchmark {
+
+    @Param({"jdbc", "mvstore", "memory"})
+    public String store;
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    private Path directory;
+    private PlayerRepository repository;
+    private Player player;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("memory-bench");
+        repository = PlayerRepository.open(store, base(directory));
+        fill(repository, rows);
+        player = new Player("Benchmark");
+        repository.savePlayer(player);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Player savePlayer() {
+        player.incrementScore();
+        repository.savePlayer(player);
+        return player;
+    }
+
+    @Benchmark
+    public List<LeaderboardEntry> loadTopPlayers() {
+        return repository.loadLeaderboard(PlayerRepository.TOP_PLAYERS);
+    }
+
+    @Benchmark
+    public List<Player> loadPlayers() {
+        return repository.loadPlayers();
+    }
+
+    // A store with the rows on disk, closed again after every open
+    @State(Scope.Thread)
+    public static class ClosedStore {
+        private Path directory;
+        private PlayerRepository opened;
+
+        @Setup(Level.Trial)
+        public void setUp(PlayerRepositoryBenchmark benchmark) throws IOException {
+            directory = Files.createTempDirectory("memory-bench-open");
+            try (PlayerRepository repository = PlayerRepository.open(benchmark.store, base(directory))) {
+                fill(repository, benchmark.rows);
+            }
+        }
+
+        @TearDown(Level.Invocation)
+        public void closeOpened() {
+            if (opened != null) {
+                opened.close();
+                opened = null;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(directory);
+        }
+    }
+
+    // Startup cost: open the store and read the top players, as the app does
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public List<LeaderboardEntry> open(ClosedStore closed) {
+        closed.opened = PlayerRepository.open(store, base(closed.directory));
+        return closed.opened.getTopPlayers();
+    }
+
+    private static Path base(Path directory) {
+        return directory.resolve("memory-game").toAbsolutePath();
+    }
+
+    private static void fill(PlayerRepository repository, int rows) {
+        for (int i = 0; i < rows; i++) {
+            repository.savePlayer(new Player(0, "Player " + i, i % 100));
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
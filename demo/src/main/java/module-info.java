@@ -1,7 +1,11 @@
+// H2 has no module descriptor and is required as an automatic module
+@SuppressWarnings("requires-automatic")
 module org.example.demo {
     requires javafx.controls;
     requires javafx.fxml;
     requires java.sql;
+    requires com.h2database;
+    requires jdk.jfr;
 
 
     opens org.example.demo to javafx.fxml;
@@ -4,6 +4,8 @@ import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.example.demo.metrics.Metrics;
+import org.example.demo.metrics.StartupLog;
 
 import java.io.IOException;
 
@@ -12,13 +14,28 @@ public class HelloApplication extends Application {
 
     @Override
     public void start(Stage stage) throws IOException {
+        // Loading the view also runs the controller's initialize(), whose
+        // own phases are recorded separately
+        long phaseStart = Metrics.start();
         FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("hello-view.fxml"));
         Scene scene = new Scene(fxmlLoader.load(), 800, 600);
         controller = fxmlLoader.getController();
+        Metrics.startupPhase("load view", phaseStart);
         
+        phaseStart = Metrics.start();
         stage.setTitle("Memory Game");
         stage.setScene(scene);
         stage.show();
+        Metrics.startupPhase("show stage", phaseStart);
+        
+        // The first pulse after show() lays out and paints the first frame
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                StartupLog.firstFrame();
+            }
+        });
     }
 
     @Override
@@ -30,6 +47,7 @@ public class HelloApplication extends Application {
     }
 
     public static void main(String[] args) {
+        StartupLog.launched();
         launch();
     }
 }
\ No newline at end of file
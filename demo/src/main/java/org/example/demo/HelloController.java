@@ -1,6 +1,7 @@
 package org.example.demo;
 
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -8,26 +9,59 @@ import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
-import javafx.scene.layout.GridPane;
+import javafx.scene.layout.StackPane;
 import javafx.util.Callback;
+import org.example.demo.engine.GameScheduler;
+import org.example.demo.journal.GameJournal;
+import org.example.demo.metrics.Metrics;
+import org.example.demo.metrics.StartupLog;
+import org.example.demo.model.BotPlayer;
 import org.example.demo.model.Card;
-import org.example.demo.model.DatabaseService;
+import org.example.demo.model.PlayerRepository;
+import org.example.demo.model.GameActor;
+import org.example.demo.model.GameResult;
+import org.example.demo.model.GameSnapshot;
+import org.example.demo.model.LeaderboardEntry;
 import org.example.demo.model.MemoryGame;
 import org.example.demo.model.Player;
+import org.example.demo.model.SnapshotStore;
+import org.example.demo.net.GameClient;
+import org.example.demo.net.GameServer;
+import org.example.demo.rating.PlayerRating;
+import org.example.demo.sim.MonteCarloBot;
+import org.example.demo.sim.OptimalSolver;
+import org.example.demo.view.BoardCanvas;
+import org.example.demo.view.CardCell;
+import org.example.demo.view.CardImageCache;
+import org.example.demo.view.CardTheme;
+import org.example.demo.view.DiagnosticsPane;
+import org.example.demo.view.RenderBatch;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class HelloController implements Initializable {
     @FXML
     private Label welcomeText;
     
     @FXML
-    private GridPane cardGrid;
+    private StackPane boardPane;
     
     @FXML
     private ListView<Card> cardListView;
     
+    @FXML
+    private Tab diagnosticsTab;
+    
+    @FXML
+    private StackPane diagnosticsPane;
+    
     @FXML
     private ListView<Player> playersListView;
     
@@ -40,6 +74,9 @@ public class HelloController implements Initializable {
     @FXML
     private Label matchedPairsLabel;
     
+    @FXML
+    private Label timeLabel;
+    
     @FXML
     private TextField playerNameField;
     
@@ -49,35 +86,161 @@ public class HelloController implements Initializable {
     @FXML
     private Button newGameButton;
     
+    @FXML
+    private ComboBox<MonteCarloBot.Difficulty> botDifficultyBox;
+    
+    @FXML
+    private Button addBotButton;
+    
+    @FXML
+    private ComboBox<CardTheme> themeBox;
+    
+    @FXML
+    private TextField serverAddressField;
+    
+    @FXML
+    private Slider turnSlider;
+    
+    private static final long FLIP_BACK_DELAY_MILLIS = 1000; // 1 Sekunde Verzögerung
+    private static final long TURN_TIMEOUT_SECONDS = 15;
+    // Bots search for at most BOT_THINK_MILLIS; the flip is shown after BOT_MOVE_DELAY_MILLIS,
+    // by which time the search has always finished
+    private static final long BOT_THINK_MILLIS = 250;
+    private static final long BOT_MOVE_DELAY_MILLIS = 700;
+    // Hints are available up to 8x8 boards
+    private static final int HINT_MAX_CARDS = 64;
+    // Longest wait for a database that is still opening when the window closes
+    private static final long DATABASE_CLOSE_SECONDS = 10;
+    
     private MemoryGame game;
-    private DatabaseService dbService;
+    // Opened in the background; completes with the service once players are loaded
+    private CompletableFuture<PlayerRepository> database;
+    private OptimalSolver solver;
+    private GameJournal journal;
+    // Decoded card faces, shared by the grid and the list
+    private final CardImageCache cardImages = new CardImageCache();
+    // Latest state of the running game, offered for resume after a crash
+    private final SnapshotStore snapshotStore = new SnapshotStore(Path.of("memory-game.snapshot"));
+    
+    // Every change to the game goes through the actor, which runs it on the FX thread.
+    // Timers and network events are queued there as well and handled in batches.
+    private GameActor actor;
+    // Delayed game actions, timed by one shared scheduler thread
+    private GameScheduler scheduler;
+    private GameScheduler.Handle flipBackHandle;
+    private GameScheduler.Handle turnTimeoutHandle;
+    private GameScheduler.Handle clockHandle;
+    private GameScheduler.Handle botMoveHandle;
+    private long gameStartNanos;
+    
+    // Online play: the local game mirrors the server's game, moves are sent to the server
+    private GameClient onlineClient;
+    private int onlineSeat = -1;
+    private int onlineSeq;
+    private List<Player> offlinePlayers; // players to bring back after an online game
     
-    private Timer flipBackTimer;
+    // Set while undo, redo or rewind moves the board, so the game-over
+    // listener does not treat a redone last turn as a newly finished game
+    private boolean rewinding;
+    private boolean updatingTurnSlider;
     
     @Override
     public void initialize(URL location, ResourceBundle resources) {
-        // Initialize the game model
-        game = new MemoryGame();
+        // Initialize the game model (-Dmemory.compactBoard=true keeps cards in primitive arrays)
+        game = new MemoryGame(Boolean.getBoolean("memory.compactBoard"));
+        actor = new GameActor(game, Platform::runLater);
+        scheduler = new GameScheduler(actor);
         
-        // Initialize the database service
-        dbService = new DatabaseService();
+        // Open the database in the background, the window does not wait for it
+        database = PlayerRepository.openAsync();
+        
+        // Record every move in the event journal
+        long phaseStart = Metrics.start();
+        openJournal();
+        Metrics.startupPhase("journal", phaseStart);
         
         // Set up bindings
         setupBindings();
         
-        // Set up ListView for cards
+        // Set up the grid board and the ListView for cards
+        setupBoardCanvas();
         setupCardListView();
-        // Attach listeners to card properties for UI refresh
-        attachCardListeners();
+        setupTurnSlider();
+        setupDiagnostics();
         
-        // Set up ListView for players
+        // Set up ListView for players and the bot controls
         setupPlayerListView();
-        
-        // Load players from database
-        loadPlayersFromDatabase();
+        setupBotControls();
         
         // Add key event handler for keyboard navigation
         addKeyEventHandlers();
+        
+        startClock();
+        
+        // Merge the stored players once the database is ready, then offer to
+        // resume, so a resumed game is not changed by the merge
+        database.whenCompleteAsync(this::databaseReady, actor);
+    }
+    
+    private void databaseReady(PlayerRepository db, Throwable error) {
+        if (error != null) {
+            error.printStackTrace();
+        } else {
+            loadPlayersFromDatabase(db);
+        }
+        StartupLog.databaseReady();
+        offerResume();
+    }
+    
+    private void offerResume() {
+        GameSnapshot snapshot = snapshotStore.load();
+        if (snapshot == null) {
+            return;
+        }
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Resume Game");
+        alert.setHeaderText("An unfinished game was found");
+        alert.setContentText("Do you want to continue it?");
+        // This runs in an actor batch: showAndWait would hold back every later
+        // actor message until the dialog closes. The new game's timers stop
+        // meanwhile, so they cannot overwrite the stored game.
+        stopTimers();
+        alert.setOnHidden(event -> actor.execute(() -> {
+            if (alert.getResult() == ButtonType.OK) {
+                resume(snapshot);
+            } else {
+                snapshotStore.delete();
+                startClock();
+            }
+        }));
+        alert.show();
+    }
+    
+    private void resume(GameSnapshot snapshot) {
+        game.restore(snapshot);
+        startClock();
+        if (game.isWaitingForFlipBack()) {
+            scheduleFlipBack();
+        } else {
+            maybePlayBotTurn();
+        }
+    }
+    
+    private void openJournal() {
+        try {
+            journal = GameJournal.open(Path.of("memory-game.journal"));
+            // Runs inside a move; the game stops recording once that move is done
+            journal.setOnFailure(e -> {
+                e.printStackTrace();
+                actor.execute(() -> {
+                    game.setJournal(null);
+                    welcomeText.setText("Game journal stopped: " + e.getMessage());
+                });
+            });
+            game.setJournal(journal);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
     
     private void setupBindings() {
@@ -105,40 +268,88 @@ public class HelloController implements Initializable {
         
         // Game over binding
         game.gameOverProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal) {
-                showGameOverDialog();
+            if (newVal && !rewinding) {
+                stopTimers();
+                snapshotStore.delete();
+                GameResult result = game.result(
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - gameStartNanos));
+                recordGameResult(result);
+                showGameOverDialog(result);
                 savePlayersToDatabase();
             }
         });
     }
     
-    private void setupCardListView() {
-        cardListView.setItems(game.getCards());
-        cardListView.setCellFactory(lv -> new ListCell<>() {
-            @Override
-            protected void updateItem(Card card, boolean empty) {
-                super.updateItem(card, empty);
-                if (empty || card == null) {
-                    setText(null);
-                    setStyle("");
-                } else {
-                    setText(card.toString());
-                    if (card.isMatched()) {
-                        setStyle("-fx-background-color: lightgreen;");
-                    } else if (card.isFlipped()) {
-                        setStyle("-fx-background-color: lightblue;");
-                    } else {
-                        setStyle("");
-                    }
-                }
+    private void setupBoardCanvas() {
+        BoardCanvas boardCanvas = new BoardCanvas(game.getEngine());
+        boardCanvas.setOnCardClicked(this::onCardClicked);
+        boardCanvas.setImages(cardImages);
+        boardPane.getChildren().add(boardCanvas);
+        
+        themeBox.getItems().setAll(CardTheme.available());
+        themeBox.setValue(cardImages.getTheme());
+        themeBox.valueProperty().addListener((obs, oldTheme, newTheme) -> {
+            cardImages.setTheme(newTheme);
+            cardListView.refresh();
+        });
+    }
+    
+    // The slider spans all recorded turns; moving it rewinds the board
+    private void setupTurnSlider() {
+        turnSlider.setMin(0);
+        turnSlider.setMax(0);
+        turnSlider.setMajorTickUnit(1);
+        turnSlider.setMinorTickCount(0);
+        turnSlider.setSnapToTicks(true);
+        turnSlider.setBlockIncrement(1);
+        InvalidationListener follow = obs -> {
+            updatingTurnSlider = true;
+            turnSlider.setMax(game.lastTurnProperty().get());
+            turnSlider.setValue(game.turnProperty().get());
+            updatingTurnSlider = false;
+        };
+        game.turnProperty().addListener(follow);
+        game.lastTurnProperty().addListener(follow);
+        turnSlider.valueProperty().addListener(obs -> {
+            if (!turnSlider.isValueChanging()) {
+                rewindToSlider();
+            }
+        });
+        turnSlider.valueChangingProperty().addListener((obs, wasChanging, changing) -> {
+            if (!changing) {
+                rewindToSlider();
             }
         });
+    }
+    
+    private void rewindToSlider() {
+        int target = (int) Math.round(turnSlider.getValue());
+        if (!updatingTurnSlider && target != game.turnProperty().get()) {
+            moveInHistory(() -> game.rewind(target));
+        }
+    }
+    
+    private void setupDiagnostics() {
+        DiagnosticsPane pane = new DiagnosticsPane(Path.of("memory-game-metrics.txt"), cardImages);
+        diagnosticsPane.getChildren().add(pane);
+        diagnosticsTab.setOnSelectionChanged(event -> {
+            if (diagnosticsTab.isSelected()) {
+                pane.refresh();
+            }
+        });
+    }
+    
+    private void setupCardListView() {
+        cardListView.setItems(game.getCards());
+        // Each cell follows its own card, changes within a pulse render once
+        RenderBatch renderBatch = new RenderBatch();
+        cardListView.setCellFactory(lv -> new CardCell(renderBatch, cardImages));
 
         // Mouse and key handlers remain unchanged
         cardListView.setOnMouseClicked(event -> {
             int index = cardListView.getSelectionModel().getSelectedIndex();
             if (index >= 0) {
-                handleCardClick(index);
+                onCardClicked(index);
             }
         });
     }
@@ -147,18 +358,38 @@ public class HelloController implements Initializable {
         playersListView.setItems(game.getPlayers());
     }
     
+    private void setupBotControls() {
+        botDifficultyBox.getItems().setAll(MonteCarloBot.Difficulty.values());
+        botDifficultyBox.setValue(MonteCarloBot.Difficulty.MEDIUM);
+    }
+    
     private void addKeyEventHandlers() {
         // Add keyboard handler to the card list view
         cardListView.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
             if (event.getCode() == KeyCode.ENTER || event.getCode() == KeyCode.SPACE) {
                 int selectedIndex = cardListView.getSelectionModel().getSelectedIndex();
                 if (selectedIndex >= 0) {
-                    handleCardClick(selectedIndex);
+                    onCardClicked(selectedIndex);
                 }
                 event.consume();
             }
         });
         
+        // Ctrl+Z / Ctrl+Y anywhere in the window once it is shown
+        boardPane.sceneProperty().addListener((obs, oldScene, scene) -> {
+            if (scene != null) {
+                scene.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+                    if (event.isShortcutDown() && event.getCode() == KeyCode.Z) {
+                        undo();
+                        event.consume();
+                    } else if (event.isShortcutDown() && event.getCode() == KeyCode.Y) {
+                        redo();
+                        event.consume();
+                    }
+                });
+            }
+        });
+        
         // Add keyboard handler to the player name field
         playerNameField.addEventHandler(KeyEvent.KEY_PRESSED, event -> {
             if (event.getCode() == KeyCode.ENTER) {
@@ -176,23 +407,247 @@ public class HelloController implements Initializable {
     @FXML
     protected void addPlayer() {
         String name = playerNameField.getText().trim();
-        if (!name.isEmpty()) {
+        if (!name.isEmpty() && game.getPlayer(name) == null) {
+            // Names identify players in the database, so each name is added once
             game.addPlayer(new Player(name));
             playerNameField.clear();
         }
     }
     
     @FXML
-    protected void newGame() {
-        // Cancel any pending flip back timer
-        if (flipBackTimer != null) {
-            flipBackTimer.cancel();
-            flipBackTimer = null;
+    protected void addBot() {
+        MonteCarloBot.Difficulty difficulty = botDifficultyBox.getValue();
+        String baseName = "Bot " + difficulty.name().charAt(0) + difficulty.name().substring(1).toLowerCase();
+        String name = baseName;
+        for (int i = 2; game.getPlayer(name) != null; i++) {
+            name = baseName + " " + i;
+        }
+        game.addPlayer(new BotPlayer(name, difficulty));
+        maybePlayBotTurn();
+    }
+    
+    @FXML
+    protected void showHint() {
+        if (game.getCards().size() > HINT_MAX_CARDS || game.gameOverProperty().get()) {
+            welcomeText.setText("No hint available");
+            return;
+        }
+        if (solver == null) {
+            // Solved once, afterwards loaded from the table file
+            solver = OptimalSolver.forCards(HINT_MAX_CARDS, OptimalSolver.DEFAULT_FILE);
+        }
+        OptimalSolver.Hint hint = solver.hint(game.getEngine(), game.getPlayers().size() > 1);
+        String advice = switch (hint.action()) {
+            case MATCH_KNOWN_PAIR -> "Take a pair you have already seen";
+            case MATCH_PARTNER -> "You have seen the partner of this card";
+            case FLIP_UNSEEN -> "Flip a card nobody has seen yet";
+            case FLIP_KNOWN -> "Flip a card you have already seen";
+        };
+        welcomeText.setText(String.format("Hint: %s (about %.1f tries left with perfect play)",
+            advice, hint.expectedTries()));
+    }
+    
+    @FXML
+    protected void joinOnline() {
+        leaveOnlineGame();
+        String address = serverAddressField.getText().trim();
+        String host = address.isEmpty() ? "localhost" : address;
+        int port = GameServer.DEFAULT_PORT;
+        int colon = address.lastIndexOf(':');
+        if (colon > 0) {
+            host = address.substring(0, colon);
+            try {
+                port = Integer.parseInt(address.substring(colon + 1));
+            } catch (NumberFormatException e) {
+                welcomeText.setText("Invalid port: " + address.substring(colon + 1));
+                return;
+            }
+        }
+        try {
+            OnlineMirror mirror = new OnlineMirror();
+            onlineClient = GameClient.connect(host, port, mirror, actor);
+            mirror.client = onlineClient;
+            onlineClient.join(8, 2);
+            welcomeText.setText("Connected to " + host + ":" + port);
+        } catch (IOException e) {
+            onlineClient = null;
+            welcomeText.setText("Could not connect to " + host + ":" + port);
+        }
+    }
+    
+    private void leaveOnlineGame() {
+        if (onlineClient != null) {
+            try {
+                onlineClient.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            onlineClient = null;
+            onlineSeat = -1;
+        }
+        if (offlinePlayers != null) {
+            game.getPlayers().setAll(offlinePlayers);
+            offlinePlayers = null;
+        }
+    }
+    
+    // Applies the server's events to the local game, which then shows them
+    // like a local game. Runs on the FX thread.
+    private class OnlineMirror implements GameClient.Listener {
+        private GameClient client;
+        
+        // Events that were already queued when the game was left are dropped
+        private boolean isCurrent() {
+            return client != null && client == onlineClient;
+        }
+        
+        @Override
+        public void joined(int sessionId, int player, int playerCount) {
+            if (!isCurrent()) {
+                return;
+            }
+            onlineSeat = player;
+            welcomeText.setText("Joined game " + sessionId + ", waiting for players...");
+        }
+        
+        @Override
+        public void started(long seed, int pairs, int currentPlayer) {
+            if (!isCurrent()) {
+                return;
+            }
+            stopTimers();
+            if (offlinePlayers == null) {
+                offlinePlayers = new ArrayList<>(game.getPlayers());
+            }
+            List<Player> seats = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                seats.add(new Player(i == onlineSeat ? "You" : "Opponent " + (i + 1)));
+            }
+            game.getPlayers().setAll(seats);
+            // Same seed, same deal: the local engine follows the server move by move
+            game.initializeCards(pairs, seed, currentPlayer);
+            startClock();
+            welcomeText.setText("Online game started");
         }
         
+        @Override
+        public void flipped(int index, int value) {
+            if (!isCurrent()) {
+                return;
+            }
+            game.flipCard(index);
+        }
+        
+        @Override
+        public void flippedBack() {
+            if (!isCurrent()) {
+                return;
+            }
+            game.flipCardsBack();
+        }
+        
+        @Override
+        public void turn(int player) {
+            if (!isCurrent()) {
+                return;
+            }
+            game.setCurrentPlayer(player);
+        }
+        
+        @Override
+        public void playerLeft(int player) {
+            if (!isCurrent()) {
+                return;
+            }
+            welcomeText.setText("Your opponent left the game");
+        }
+        
+        @Override
+        public void disconnected() {
+            if (isCurrent()) {
+                leaveOnlineGame();
+                welcomeText.setText("Disconnected from server");
+            }
+        }
+    }
+    
+    @FXML
+    protected void newGame() {
+        leaveOnlineGame();
+        
+        // Cancel any pending flip back and turn timeout
+        stopTimers();
+        
         game.initializeCards(8); // 8 pairs = 16 cards
-        attachCardListeners();
-        cardListView.refresh();
+        saveSnapshot();
+        startClock();
+        maybePlayBotTurn();
+    }
+    
+    @FXML
+    protected void undo() {
+        if (game.canUndo()) {
+            moveInHistory(game::undo);
+        }
+    }
+    
+    @FXML
+    protected void redo() {
+        if (game.canRedo()) {
+            moveInHistory(game::redo);
+        }
+    }
+    
+    // Undo and rewind are for local practice; a pending flip back or bot
+    // move belongs to the turn that is taken back
+    private void moveInHistory(Runnable move) {
+        if (onlineClient != null) {
+            welcomeText.setText("Undo is not available in online games");
+            resetTurnSlider();
+            return;
+        }
+        if (game.isFinished()) {
+            // The game was already recorded when it ended
+            welcomeText.setText("The game is over; start a new game");
+            resetTurnSlider();
+            return;
+        }
+        cancel(flipBackHandle);
+        cancel(botMoveHandle);
+        flipBackHandle = null;
+        botMoveHandle = null;
+        rewinding = true;
+        try {
+            move.run();
+        } finally {
+            rewinding = false;
+        }
+        welcomeText.setText("Turn " + game.turnProperty().get() + " of " + game.lastTurnProperty().get()
+            + " (practice, not recorded)");
+        saveSnapshot();
+        restartTurnTimeout();
+        maybePlayBotTurn();
+    }
+    
+    private void resetTurnSlider() {
+        updatingTurnSlider = true;
+        turnSlider.setValue(game.turnProperty().get());
+        updatingTurnSlider = false;
+    }
+    
+    // Clicks are ignored while a bot is playing
+    private void onCardClicked(int index) {
+        if (onlineClient != null) {
+            if (game.getEngine().getCurrentPlayerIndex() == onlineSeat) {
+                try {
+                    onlineClient.flip(onlineSeq++, index);
+                } catch (IOException e) {
+                    welcomeText.setText("Connection lost");
+                }
+            }
+        } else if (!(game.getCurrentPlayer() instanceof BotPlayer)) {
+            handleCardClick(index);
+        }
     }
     
     private void handleCardClick(int index) {
@@ -203,113 +658,239 @@ public class HelloController implements Initializable {
         }
         
         game.flipCard(index);
-        // Update UI immediately
-        cardListView.refresh();
         
         // Wenn zwei Karten aufgedeckt wurden und nicht übereinstimmen,
         // drehe sie nach einer Verzögerung wieder um
         if (game.isWaitingForFlipBack()) {
             scheduleFlipBack();
+        } else {
+            if (game.getFlippedCardIndices().length == 0) {
+                // A pair was found, the turn is complete
+                game.endTurn();
+                saveSnapshot();
+            }
+            restartTurnTimeout();
+            maybePlayBotTurn();
         }
     }
     
-    private void scheduleFlipBack() {
-        if (flipBackTimer != null) {
-            flipBackTimer.cancel();
+    // Written in the background, so this can run after every turn
+    private void saveSnapshot() {
+        if (!game.gameOverProperty().get() && onlineClient == null) {
+            snapshotStore.save(game.snapshot());
         }
-        
-        flipBackTimer = new Timer();
-        flipBackTimer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                Platform.runLater(() -> {
-                    game.flipCardsBack();
-                    cardListView.refresh();
-                });
+    }
+    
+    // Starts the search for the bot's next card if it is a bot's turn
+    private void maybePlayBotTurn() {
+        if (botMoveHandle != null || game.isWaitingForFlipBack() || game.gameOverProperty().get()
+                || !(game.getCurrentPlayer() instanceof BotPlayer bot)) {
+            return;
+        }
+        CompletableFuture<Integer> move = bot.getBot().chooseCard(game.getEngine(), BOT_THINK_MILLIS);
+        botMoveHandle = scheduler.schedule(() -> {
+            botMoveHandle = null;
+            if (game.getCurrentPlayer() == bot) {
+                handleCardClick(move.join());
             }
-        }, 1000); // 1 Sekunde Verzögerung
+        }, BOT_MOVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    private void scheduleFlipBack() {
+        cancel(flipBackHandle);
+        cancel(turnTimeoutHandle);
+        flipBackHandle = scheduler.schedule(() -> {
+            flipBackHandle = null;
+            game.flipCardsBack();
+            game.endTurn();
+            saveSnapshot();
+            restartTurnTimeout();
+            maybePlayBotTurn();
+        }, FLIP_BACK_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    // In multiplayer games a player who does not finish the turn in time loses it
+    private void restartTurnTimeout() {
+        cancel(turnTimeoutHandle);
+        turnTimeoutHandle = null;
+        if (game.getPlayers().size() < 2 || game.gameOverProperty().get() || onlineClient != null) {
+            return;
+        }
+        turnTimeoutHandle = scheduler.schedule(() -> {
+            game.flipCardsBack();
+            game.nextPlayer();
+            game.endTurn();
+            saveSnapshot();
+            restartTurnTimeout();
+            maybePlayBotTurn();
+        }, TURN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    private void startClock() {
+        gameStartNanos = System.nanoTime();
+        timeLabel.setText("Time: 0s");
+        clockHandle = scheduler.scheduleAtFixedRate(
+            () -> timeLabel.setText("Time: " + elapsedSeconds() + "s"), 1, TimeUnit.SECONDS);
+        restartTurnTimeout();
+    }
+    
+    private long elapsedSeconds() {
+        return TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - gameStartNanos);
+    }
+    
+    private void stopTimers() {
+        cancel(flipBackHandle);
+        cancel(turnTimeoutHandle);
+        cancel(clockHandle);
+        cancel(botMoveHandle);
+        flipBackHandle = null;
+        turnTimeoutHandle = null;
+        clockHandle = null;
+        botMoveHandle = null;
+    }
+    
+    private static void cancel(GameScheduler.Handle handle) {
+        if (handle != null) {
+            handle.cancel();
+        }
+    }
+    
+    private void recordGameResult(GameResult result) {
+        if (onlineClient != null) {
+            return; // the server's game, not a local one
+        }
+        if (game.isRewound()) {
+            return; // practice: turns were taken back
+        }
+        database.thenAccept(db -> db.recordGame(result));
     }
     
-    private void showGameOverDialog() {
+    @FXML
+    protected void showPlayerStats() {
+        Player player = playersListView.getSelectionModel().getSelectedItem();
+        if (player == null) {
+            welcomeText.setText("Select a player first");
+            return;
+        }
+        String name = player.getName();
+        CompletableFuture<PlayerRating> ratingLookup = database.thenApplyAsync(db -> db.getRating(name));
+        database.thenApplyAsync(db -> db.getStats(name))
+            .thenAcceptBothAsync(ratingLookup, (stats, rating) -> {
+                Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                alert.setTitle("Player Stats");
+                alert.setHeaderText(name);
+                String ratingText = rating == null ? "Rating: - (no multiplayer games yet)"
+                    : String.format("Rating: %.0f after %d multiplayer games", rating.rating(), rating.games());
+                if (stats == null || stats.games() == 0) {
+                    alert.setContentText("No finished games yet.\n" + ratingText);
+                } else {
+                    alert.setContentText(String.format(
+                        "Games: %d%nWin rate: %.0f%%%nTries per pair: %.2f (std. dev. %.2f)%nBest time: %s%n%s",
+                        stats.games(), 100 * stats.winRate(), stats.triesPerPairMean(),
+                        Math.sqrt(stats.triesPerPairVariance()),
+                        stats.bestTimeMillis() > 0 ? stats.bestTimeMillis() / 1000 + "s" : "-", ratingText));
+                }
+                alert.show();
+            }, actor);
+    }
+    
+    private void showGameOverDialog(GameResult result) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("Game Over");
         alert.setHeaderText("Game Over");
         
-        // Find the winner
-        Player winner = null;
-        int maxScore = -1;
-        
-        for (Player player : game.getPlayers()) {
-            if (player.getScore() > maxScore) {
-                maxScore = player.getScore();
-                winner = player;
+        // Winners by pairs in this game, not by the score summed over all games
+        List<String> winners = new ArrayList<>();
+        int winningPairs = 0;
+        for (GameResult.Seat seat : result.seats()) {
+            if (seat.winner()) {
+                winners.add(seat.name());
+                winningPairs = seat.pairs();
             }
         }
         
         String resultMessage;
-        if (winner != null) {
-            resultMessage = "Winner: " + winner.getName() + " with " + winner.getScore() + " pairs!";
+        if (winners.size() == 1) {
+            resultMessage = "Winner: " + winners.get(0) + " with " + winningPairs + " pairs!";
+        } else if (winners.size() > 1) {
+            resultMessage = "Draw: " + String.join(", ", winners) + " with " + winningPairs + " pairs each!";
         } else {
             resultMessage = "Game Over!";
         }
         
-        alert.setContentText(resultMessage + "\nTotal tries: " + game.triesProperty().get());
+        alert.setContentText(resultMessage + "\nTotal tries: " + game.triesProperty().get()
+            + "\nTime: " + elapsedSeconds() + "s");
         
-        alert.showAndWait();
+        // Not showAndWait: this runs in an actor batch, which would stay
+        // blocked until the dialog is closed
+        alert.show();
     }
     
-    private void loadPlayersFromDatabase() {
-        List<Player> players = dbService.loadPlayers();
+    private void loadPlayersFromDatabase(PlayerRepository db) {
+        if (onlineClient != null) {
+            return; // joined a server before the database was ready
+        }
+        // Only the top of the leaderboard is loaded, however large the table is
+        List<LeaderboardEntry> entries = db.getTopPlayers();
         
         // Add loaded players only if they don't already exist
-        for (Player player : players) {
-            boolean exists = false;
-            for (Player existingPlayer : game.getPlayers()) {
-                if (existingPlayer.getName().equals(player.getName())) {
-                    exists = true;
-                    break;
-                }
-            }
-            
-            if (!exists) {
-                game.addPlayer(player);
+        for (LeaderboardEntry entry : entries) {
+            Player existing = game.getPlayer(entry.name());
+            if (existing == null) {
+                game.addPlayer(entry.toPlayer());
+            } else if (existing.getId() == 0) {
+                // Same name as a stored player: continue with the stored row
+                existing.setId(entry.id());
+                existing.setScore(entry.score());
             }
         }
     }
     
-    private void savePlayersToDatabase() {
+    private CompletableFuture<PlayerRepository> savePlayersToDatabase() {
+        if (onlineClient != null) {
+            return database; // online seats are not local players
+        }
+        // Written in the background; close() flushes what is still pending.
+        // Saves made before the database is open are queued until it is and
+        // then run on the thread that opened it, which must not read the FX
+        // properties: it gets copies with the name and score read here.
+        // Pairs of a practice game are not saved, like its result.
+        boolean direct = database.isDone() && !game.isRewound();
+        List<Player> players = new ArrayList<>();
         for (Player player : game.getPlayers()) {
-            dbService.savePlayer(player);
+            if (!(player instanceof BotPlayer)) {
+                players.add(direct ? player
+                    : new Player(player.getId(), player.getName(), game.getCountedScore(player)));
+            }
         }
+        return database.thenApply(db -> {
+            players.forEach(db::savePlayerAsync);
+            return db;
+        });
     }
     
     public void shutdown() {
         // Clean up resources, save state, etc.
-        if (flipBackTimer != null) {
-            flipBackTimer.cancel();
+        stopTimers();
+        
+        // An unfinished game can be resumed on the next start
+        saveSnapshot();
+        snapshotStore.close();
+        
+        try {
+            savePlayersToDatabase().thenAccept(PlayerRepository::close)
+                    .get(DATABASE_CLOSE_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            e.printStackTrace();
         }
+        leaveOnlineGame();
         
-        savePlayersToDatabase();
-        dbService.close();
-    }
-    
-    // Attach listeners to all cards for automatic ListView refresh
-    private void attachCardListeners() {
-        // Clear any existing listeners by recreating UI (cards list is new on newGame)
-        game.getCards().forEach(card -> {
-            card.flippedProperty().addListener((obs, oldVal, newVal) -> cardListView.refresh());
-            card.matchedProperty().addListener((obs, oldVal, newVal) -> cardListView.refresh());
-        });
-        // Listen to list changes to attach listeners to new cards
-        game.getCards().addListener((javafx.collections.ListChangeListener<Card>) change -> {
-            while (change.next()) {
-                if (change.wasAdded()) {
-                    for (Card card : change.getAddedSubList()) {
-                        card.flippedProperty().addListener((obs, oldVal, newVal) -> cardListView.refresh());
-                        card.matchedProperty().addListener((obs, oldVal, newVal) -> cardListView.refresh());
-                    }
-                }
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-        });
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package org.example.demo.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads the format of BinaryRecordWriter. Records carry no field count, so
+// every field of a record must be read before next() is called.
+final class BinaryRecordReader implements RecordReader {
+    private final FileChannel channel;
+    private final Path file;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CsvRecordWriter.BUFFER_SIZE);
+    private byte[] scratch = new byte[64];
+    private boolean ended;
+
+    BinaryRecordReader(Path file, String[] columns) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        try {
+            require(8);
+            if (buffer.getInt() != BinaryRecordWriter.MAGIC || buffer.getInt() != BinaryRecordWriter.VERSION) {
+                throw new IOException("Not a record file: " + file);
+            }
+            String[] header = new String[(int) getVarLong()];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = readString();
+            }
+            if (!Arrays.equals(header, columns)) {
+                throw new IOException(file + ": expected columns " + String.join(",", columns));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (ended) {
+            return false;
+        }
+        require(1);
+        byte marker = buffer.get();
+        if (marker == BinaryRecordWriter.END) {
+            ended = true;
+            return false;
+        }
+        if (marker != BinaryRecordWriter.RECORD) {
+            throw new IOException(file + ": corrupt record marker " + marker);
+        }
+        return true;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        long value = readLong();
+        if (value != (int) value) {
+            throw new IOException(file + ": number out of range");
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        long zigzag = getVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        require(1);
+        return buffer.get() != 0;
+    }
+
+    @Override
+    public String readString() throws IOException {
+        int length = (int) getVarLong();
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, 2 * scratch.length)];
+        }
+        int offset = 0;
+        while (offset < length) {
+            require(1);
+            int count = Math.min(buffer.remaining(), length - offset);
+            buffer.get(scratch, offset, count);
+            offset += count;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long getVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            require(1);
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException(file + ": corrupt number");
+    }
+
+    // Makes sure that many bytes are buffered, reading more from the file
+    private void require(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException(file + ": unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+}
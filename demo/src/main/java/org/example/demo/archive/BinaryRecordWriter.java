@@ -0,0 +1,116 @@
+package org.example.demo.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Compact binary records. Layout: magic, version, the column names, then
+// every record as a 1 byte followed by its fields, and a 0 byte at the end
+// so a truncated file is detected. Numbers are zigzag varints (1 byte for
+// small values), booleans one byte, strings a varint length and UTF-8.
+final class BinaryRecordWriter implements RecordWriter {
+    static final int MAGIC = 0x4D475243; // "MGRC"
+    static final int VERSION = 1;
+    static final byte RECORD = 1;
+    static final byte END = 0;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CsvRecordWriter.BUFFER_SIZE);
+    private boolean inRecord;
+
+    BinaryRecordWriter(Path file, String[] columns) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        putVarLong(columns.length);
+        for (String column : columns) {
+            putString(column);
+        }
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    @Override
+    public void writeLong(long value) throws IOException {
+        startRecord();
+        putVarLong((value << 1) ^ (value >> 63));
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        startRecord();
+        ensure(1);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        startRecord();
+        putString(value);
+    }
+
+    @Override
+    public void endRecord() {
+        inRecord = false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            ensure(1);
+            buffer.put(END);
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void startRecord() throws IOException {
+        if (!inRecord) {
+            ensure(1);
+            buffer.put(RECORD);
+            inRecord = true;
+        }
+    }
+
+    private void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarLong(bytes.length);
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    private void putVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,190 @@
+package org.example.demo.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Reads CSV as written by CsvRecordWriter (and by spreadsheets: \r\n line
+// ends and quoted fields are accepted). The file is read through one
+// buffer; each field is copied into a reusable scratch array.
+final class CsvRecordReader implements RecordReader {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(CsvRecordWriter.BUFFER_SIZE);
+    private final Path file;
+    private byte[] field = new byte[64];
+    private int fieldLength;
+    private boolean endOfRecord = true;
+    private boolean endOfFile;
+    private long line;
+
+    CsvRecordReader(Path file, String[] columns) throws IOException {
+        this.file = file;
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        try {
+            if (!next()) {
+                throw new IOException("Empty file: " + file);
+            }
+            String[] header = new String[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                header[i] = endOfRecord ? null : readString();
+            }
+            if (!Arrays.equals(header, columns) || !endOfRecord) {
+                throw new IOException(file + ": expected columns " + String.join(",", columns));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (!endOfRecord) {
+            readField();
+        }
+        int b;
+        do {
+            b = peek();
+            if (b == '\r' || b == '\n') {
+                buffer.get(); // blank line
+            }
+        } while (b == '\r' || b == '\n');
+        if (b < 0) {
+            endOfFile = true;
+            return false;
+        }
+        endOfRecord = false;
+        line++;
+        return true;
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        long value = readLong();
+        if (value != (int) value) {
+            throw error("number out of range");
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        readField();
+        if (fieldLength == 0) {
+            throw error("number expected");
+        }
+        int i = 0;
+        boolean negative = field[0] == '-';
+        if (negative) {
+            i++;
+        }
+        long value = 0;
+        for (; i < fieldLength; i++) {
+            int digit = field[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw error("number expected");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        readField();
+        if (fieldLength == 1 && (field[0] == '1' || field[0] == '0')) {
+            return field[0] == '1';
+        }
+        String text = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+        if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+            return text.equalsIgnoreCase("true");
+        }
+        throw error("boolean expected");
+    }
+
+    @Override
+    public String readString() throws IOException {
+        readField();
+        return new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Copies the next field of the current record into field[0, fieldLength)
+    private void readField() throws IOException {
+        if (endOfRecord) {
+            throw error("too few fields");
+        }
+        fieldLength = 0;
+        boolean quoted = peek() == '"';
+        if (quoted) {
+            buffer.get();
+        }
+        while (true) {
+            int b = peek();
+            if (b < 0) {
+                if (quoted) {
+                    throw error("unterminated quote");
+                }
+                endOfRecord = true;
+                return;
+            }
+            buffer.get();
+            if (quoted) {
+                if (b == '"') {
+                    if (peek() == '"') {
+                        buffer.get();
+                        append((byte) '"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    append((byte) b);
+                }
+            } else if (b == ',') {
+                return;
+            } else if (b == '\n') {
+                endOfRecord = true;
+                return;
+            } else if (b != '\r') {
+                append((byte) b);
+            }
+        }
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, field.length * 2);
+        }
+        field[fieldLength++] = b;
+    }
+
+    // Next byte without consuming it, -1 at the end of the file
+    private int peek() throws IOException {
+        if (!buffer.hasRemaining()) {
+            if (endOfFile) {
+                return -1;
+            }
+            buffer.clear();
+            int read = channel.read(buffer);
+            buffer.flip();
+            if (read < 0) {
+                endOfFile = true;
+                return -1;
+            }
+        }
+        return buffer.get(buffer.position()) & 0xFF;
+    }
+
+    private IOException error(String message) {
+        return new IOException(file + " record " + line + ": " + message);
+    }
+}
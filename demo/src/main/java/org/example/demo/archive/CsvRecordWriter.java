@@ -0,0 +1,135 @@
+package org.example.demo.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// RFC 4180 CSV in UTF-8: comma separated, \n line ends, and strings quoted
+// only when they contain a comma, quote or line break
+final class CsvRecordWriter implements RecordWriter {
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    private boolean firstField = true;
+
+    CsvRecordWriter(Path file, String[] columns) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        for (String column : columns) {
+            writeString(column);
+        }
+        endRecord();
+    }
+
+    @Override
+    public void writeInt(int value) throws IOException {
+        writeLong(value);
+    }
+
+    // Formats the digits directly into the buffer, no String per number
+    @Override
+    public void writeLong(long value) throws IOException {
+        separator();
+        int length = 0;
+        long rest = value;
+        do {
+            digits[length++] = (byte) ('0' + Math.abs(rest % 10));
+            rest /= 10;
+        } while (rest != 0);
+        ensure(length + 1);
+        if (value < 0) {
+            buffer.put((byte) '-');
+        }
+        while (length > 0) {
+            buffer.put(digits[--length]);
+        }
+    }
+
+    @Override
+    public void writeBoolean(boolean value) throws IOException {
+        separator();
+        ensure(1);
+        buffer.put((byte) (value ? '1' : '0'));
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        separator();
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        boolean quote = false;
+        for (byte b : bytes) {
+            if (b == ',' || b == '"' || b == '\n' || b == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            put(bytes);
+            return;
+        }
+        ensure(1);
+        buffer.put((byte) '"');
+        for (byte b : bytes) {
+            ensure(2);
+            if (b == '"') {
+                buffer.put((byte) '"');
+            }
+            buffer.put(b);
+        }
+        ensure(1);
+        buffer.put((byte) '"');
+    }
+
+    @Override
+    public void endRecord() throws IOException {
+        ensure(1);
+        buffer.put((byte) '\n');
+        firstField = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void separator() throws IOException {
+        if (!firstField) {
+            ensure(1);
+            buffer.put((byte) ',');
+        }
+        firstField = false;
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            ensure(1);
+            int count = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, count);
+            offset += count;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
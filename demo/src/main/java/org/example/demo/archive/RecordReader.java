@@ -0,0 +1,26 @@
+package org.example.demo.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Reads what a RecordWriter wrote, one record at a time. Fields must be read
+// in column order; fields left unread are skipped by the next next().
+public interface RecordReader extends Closeable {
+
+    // Moves to the next record, false at the end of the file
+    boolean next() throws IOException;
+
+    int readInt() throws IOException;
+
+    long readLong() throws IOException;
+
+    boolean readBoolean() throws IOException;
+
+    String readString() throws IOException;
+
+    // Opens the file and checks that it has exactly the expected columns
+    static RecordReader open(Path file, String... columns) throws IOException {
+        return RecordWriter.isCsv(file) ? new CsvRecordReader(file, columns) : new BinaryRecordReader(file, columns);
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.demo.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Writes flat records field by field to a file, through a fixed-size buffer
+// and a FileChannel, so the memory use does not depend on the row count.
+// Files ending in .csv are written as CSV with a header line, everything
+// else in the compact binary format (BinaryRecordWriter).
+public interface RecordWriter extends Closeable {
+
+    void writeInt(int value) throws IOException;
+
+    void writeLong(long value) throws IOException;
+
+    void writeBoolean(boolean value) throws IOException;
+
+    void writeString(String value) throws IOException;
+
+    void endRecord() throws IOException;
+
+    static RecordWriter open(Path file, String... columns) throws IOException {
+        return isCsv(file) ? new CsvRecordWriter(file, columns) : new BinaryRecordWriter(file, columns);
+    }
+
+    static boolean isCsv(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".csv");
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.demo.engine;
+
+import java.util.Arrays;
+
+// Compact card storage: one int per card value plus bitsets for the
+// flipped, matched and seen (turned over at least once) flags.
+// No objects are allocated per card.
+public final class Board {
+    private int[] values = new int[0];
+    private long[] flipped = new long[0];
+    private long[] matched = new long[0];
+    private long[] seen = new long[0];
+    private int size;
+
+    // Loads new card values and clears all flags. Arrays are reused when
+    // they are already large enough.
+    public void reset(int[] cardValues) {
+        int count = cardValues.length;
+        int words = wordCount(count);
+        if (values.length < count) {
+            values = new int[count];
+        }
+        if (flipped.length < words) {
+            flipped = new long[words];
+            matched = new long[words];
+            seen = new long[words];
+        } else {
+            Arrays.fill(flipped, 0, words, 0L);
+            Arrays.fill(matched, 0, words, 0L);
+            Arrays.fill(seen, 0, words, 0L);
+        }
+        System.arraycopy(cardValues, 0, values, 0, count);
+        size = count;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    public boolean isFlipped(int index) {
+        return (flipped[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setFlipped(int index, boolean value) {
+        if (value) {
+            flipped[index >>> 6] |= 1L << index;
+        } else {
+            flipped[index >>> 6] &= ~(1L << index);
+        }
+    }
+
+    public boolean isMatched(int index) {
+        return (matched[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setMatched(int index) {
+        matched[index >>> 6] |= 1L << index;
+    }
+
+    public boolean isSeen(int index) {
+        return (seen[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public void setSeen(int index) {
+        seen[index >>> 6] |= 1L << index;
+    }
+
+    // Overwrites all three flags of one card, for stepping between snapshots
+    public void setFlags(int index, boolean isFlipped, boolean isMatched, boolean isSeen) {
+        long bit = 1L << index;
+        int word = index >>> 6;
+        flipped[word] = isFlipped ? flipped[word] | bit : flipped[word] & ~bit;
+        matched[word] = isMatched ? matched[word] | bit : matched[word] & ~bit;
+        seen[word] = isSeen ? seen[word] | bit : seen[word] & ~bit;
+    }
+
+    // Copies of the flag bitsets, one bit per card, for snapshots
+    public long[] copyFlipped() {
+        return Arrays.copyOf(flipped, wordCount(size));
+    }
+
+    public long[] copyMatched() {
+        return Arrays.copyOf(matched, wordCount(size));
+    }
+
+    public long[] copySeen() {
+        return Arrays.copyOf(seen, wordCount(size));
+    }
+
+    // Overwrites all flags of the current cards with saved bitsets
+    public void restoreFlags(long[] savedFlipped, long[] savedMatched, long[] savedSeen) {
+        int words = wordCount(size);
+        if (savedFlipped.length != words || savedMatched.length != words || savedSeen.length != words) {
+            throw new IllegalArgumentException("Saved flags do not fit a board of " + size + " cards");
+        }
+        System.arraycopy(savedFlipped, 0, flipped, 0, words);
+        System.arraycopy(savedMatched, 0, matched, 0, words);
+        System.arraycopy(savedSeen, 0, seen, 0, words);
+    }
+
+    // Approximate heap footprint of the card data (array headers included)
+    public long memoryBytes() {
+        return 16L + 4L * values.length + 3 * (16L + 8L * flipped.length);
+    }
+
+    public double bytesPerCard() {
+        return size == 0 ? 0 : (double) memoryBytes() / size;
+    }
+
+    private static int wordCount(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.demo.engine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Builds shuffled decks of int-coded card values. Pair i is the value i, so any
+// number of pairs fits into an int[]; label() turns a value into A..Z, AA..ZZ, ...
+// A deck is fully determined by (pairs, seed), which makes deals replayable.
+public final class CardDeck {
+
+    private CardDeck() {
+    }
+
+    public static int[] deal(int pairs, long seed) {
+        int[] values = new int[pairs * 2];
+        dealInto(values, pairs, seed);
+        return values;
+    }
+
+    // Fills the first 2 * pairs slots of the array with a shuffled deck
+    public static void dealInto(int[] values, int pairs, long seed) {
+        dealInto(values, pairs, new SplittableRandom(seed));
+    }
+
+    // Same as above but draws from an existing generator, so repeated deals
+    // (simulations) do not allocate
+    public static void dealInto(int[] values, int pairs, SplittableRandom random) {
+        int count = pairs * 2;
+        if (values.length < count) {
+            throw new IllegalArgumentException("Deck of " + pairs + " pairs needs " + count + " slots");
+        }
+        for (int i = 0; i < count; i++) {
+            values[i] = i >>> 1;
+        }
+        shuffle(values, count, random);
+    }
+
+    // In-place Fisher-Yates shuffle of the first count elements
+    public static void shuffle(int[] values, int count, SplittableRandom random) {
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    // Spreadsheet-style column names: 0 -> A, 25 -> Z, 26 -> AA, 701 -> ZZ, ...
+    public static String label(int value) {
+        if (value < 26) {
+            return Character.toString((char) ('A' + value));
+        }
+        char[] buffer = new char[7];
+        int pos = buffer.length;
+        long n = value + 1L;
+        while (n > 0) {
+            n--;
+            buffer[--pos] = (char) ('A' + (int) (n % 26));
+            n /= 26;
+        }
+        return new String(buffer, pos, buffer.length - pos);
+    }
+}
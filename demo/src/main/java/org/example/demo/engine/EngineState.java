@@ -0,0 +1,8 @@
+package org.example.demo.engine;
+
+// Saved GameEngine state without the card values. The bitsets hold one bit
+// per card, so a state costs about three bits per card.
+public record EngineState(int cardCount, long[] flipped, long[] matched, long[] seen,
+                          int tries, int matchedPairs, int currentPlayerIndex,
+                          int firstCardIndex, int secondCardIndex, boolean waitingForFlipBack) {
+}
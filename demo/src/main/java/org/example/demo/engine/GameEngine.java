@@ -0,0 +1,356 @@
+package org.example.demo.engine;
+
+import java.util.Arrays;
+
+// Plain-Java implementation of the memory rules.
+// Holds the whole game state in primitive fields so it can run without JavaFX
+// (simulations, servers, benchmarks). MemoryGame wraps it for the UI.
+public class GameEngine {
+    private static final GameListener[] NO_LISTENERS = new GameListener[0];
+
+    private final Board board = new Board();
+    private int cardCount;
+
+    // What a player with perfect memory knows: cards never turned over, seen
+    // cards whose partner is still hidden, and pairs whose both cards were seen
+    private byte[] seenPerValue = new byte[0];
+    private int unseenCount;
+    private int knownSingles;
+    private int knownPairs;
+
+    private int playerCount;
+    private int currentPlayerIndex;
+    private int tries;
+    private int matchedPairs;
+    private boolean gameOver;
+
+    private int firstCardIndex = -1;
+    private int secondCardIndex = -1;
+    private boolean waitingForFlipBack;
+
+    private GameListener[] listeners = NO_LISTENERS;
+
+    // Starts a new round with the given card values (two equal values form a pair).
+    // The board arrays are reused when they are already large enough.
+    public void initialize(int[] cardValues) {
+        int count = cardValues.length;
+        board.reset(cardValues);
+        cardCount = count;
+
+        int valueBound = 0;
+        for (int value : cardValues) {
+            valueBound = Math.max(valueBound, value + 1);
+        }
+        if (seenPerValue.length < valueBound) {
+            seenPerValue = new byte[valueBound];
+        } else {
+            Arrays.fill(seenPerValue, 0, valueBound, (byte) 0);
+        }
+        unseenCount = count;
+        knownSingles = 0;
+        knownPairs = 0;
+
+        // Reset game state
+        matchedPairs = 0;
+        tries = 0;
+        gameOver = false;
+        resetFlippedCards();
+
+        for (GameListener listener : listeners) {
+            listener.boardInitialized(count);
+        }
+    }
+
+    // Returns false if the card cannot be flipped right now
+    public boolean flipCard(int index) {
+        if (index < 0 || index >= cardCount) {
+            return false;
+        }
+
+        // Can't flip a card that's already matched or flipped
+        if (board.isMatched(index) || board.isFlipped(index) || waitingForFlipBack) {
+            return false;
+        }
+
+        setFlipped(index, true);
+        markSeen(index);
+
+        if (firstCardIndex < 0) {
+            // First card flipped
+            firstCardIndex = index;
+            return true;
+        }
+
+        // Second card flipped
+        secondCardIndex = index;
+        tries++;
+        for (GameListener listener : listeners) {
+            listener.triesChanged(tries);
+        }
+
+        if (board.getValue(firstCardIndex) == board.getValue(index)) {
+            // Match found
+            board.setMatched(firstCardIndex);
+            board.setMatched(index);
+            matchedPairs++;
+            knownPairs--;
+            for (GameListener listener : listeners) {
+                listener.cardsMatched(firstCardIndex, index, playerCount > 0 ? currentPlayerIndex : -1);
+            }
+
+            // Check if game is over
+            if (matchedPairs == cardCount / 2) {
+                gameOver = true;
+                for (GameListener listener : listeners) {
+                    listener.gameOver();
+                }
+            }
+
+            // Reset cards for next turn
+            resetFlippedCards();
+        } else {
+            // No match, mark for flip back and switch player
+            waitingForFlipBack = true;
+            nextPlayer();
+        }
+        return true;
+    }
+
+    // Everything except the card values, which are dealt again from the seed
+    public EngineState saveState() {
+        return new EngineState(cardCount, board.copyFlipped(), board.copyMatched(), board.copySeen(),
+                tries, matchedPairs, currentPlayerIndex, firstCardIndex, secondCardIndex, waitingForFlipBack);
+    }
+
+    // Restores a saved state onto a board that holds the same cards
+    public void restoreState(EngineState state) {
+        if (state.cardCount() != cardCount) {
+            throw new IllegalArgumentException("State of " + state.cardCount() + " cards, board has " + cardCount);
+        }
+        board.restoreFlags(state.flipped(), state.matched(), state.seen());
+        tries = state.tries();
+        matchedPairs = state.matchedPairs();
+        currentPlayerIndex = state.currentPlayerIndex();
+        firstCardIndex = state.firstCardIndex();
+        secondCardIndex = state.secondCardIndex();
+        waitingForFlipBack = state.waitingForFlipBack();
+        gameOver = cardCount > 0 && matchedPairs == cardCount / 2;
+
+        // Rebuild the knowledge counters from the seen bits
+        Arrays.fill(seenPerValue, (byte) 0);
+        unseenCount = cardCount;
+        knownSingles = 0;
+        knownPairs = 0;
+        for (int i = 0; i < cardCount; i++) {
+            if (board.isSeen(i)) {
+                countSeen(i);
+            }
+        }
+        knownPairs -= matchedPairs;
+
+        for (GameListener listener : listeners) {
+            listener.stateRestored();
+        }
+    }
+
+    // Jumps to a turn recorded by a TurnHistory. Only the changed cards are
+    // rewritten; the rest of the board already matches the turn.
+    void restoreTurn(TurnHistory.Turn turn, int[] changedCards) {
+        PersistentBoard target = turn.board();
+        for (int index : changedCards) {
+            boolean seen = target.isSeen(index);
+            if (seen != board.isSeen(index)) {
+                seenPerValue[board.getValue(index)] += (byte) (seen ? 1 : -1);
+            }
+            board.setFlags(index, target.isFlipped(index), target.isMatched(index), seen);
+        }
+        tries = turn.tries();
+        matchedPairs = turn.matchedPairs();
+        currentPlayerIndex = turn.currentPlayerIndex();
+        unseenCount = turn.unseenCount();
+        knownSingles = turn.knownSingles();
+        knownPairs = turn.knownPairs();
+        gameOver = cardCount > 0 && matchedPairs == cardCount / 2;
+        resetFlippedCards();
+
+        for (GameListener listener : listeners) {
+            listener.turnRestored(changedCards);
+        }
+    }
+
+    public void flipCardsBack() {
+        if (firstCardIndex >= 0 && !board.isMatched(firstCardIndex)) {
+            setFlipped(firstCardIndex, false);
+        }
+
+        if (secondCardIndex >= 0 && !board.isMatched(secondCardIndex)) {
+            setFlipped(secondCardIndex, false);
+        }
+
+        resetFlippedCards();
+    }
+
+    public void flipCardBack(int index) {
+        if (index >= 0 && index < cardCount && !board.isMatched(index)) {
+            setFlipped(index, false);
+        }
+    }
+
+    public void nextPlayer() {
+        if (playerCount > 1) {
+            setCurrentPlayerIndex((currentPlayerIndex + 1) % playerCount);
+        }
+    }
+
+    private void setFlipped(int index, boolean value) {
+        if (board.isFlipped(index) == value) {
+            return;
+        }
+        board.setFlipped(index, value);
+        for (GameListener listener : listeners) {
+            listener.cardFlipped(index, value);
+        }
+    }
+
+    private void markSeen(int index) {
+        if (board.isSeen(index)) {
+            return;
+        }
+        board.setSeen(index);
+        countSeen(index);
+    }
+
+    private void countSeen(int index) {
+        unseenCount--;
+        int value = board.getValue(index);
+        if (++seenPerValue[value] == 2) {
+            knownSingles--;
+            knownPairs++;
+        } else {
+            knownSingles++;
+        }
+    }
+
+    private void resetFlippedCards() {
+        firstCardIndex = -1;
+        secondCardIndex = -1;
+        waitingForFlipBack = false;
+    }
+
+    public void setCurrentPlayerIndex(int index) {
+        if (index == currentPlayerIndex) {
+            return;
+        }
+        currentPlayerIndex = index;
+        for (GameListener listener : listeners) {
+            listener.currentPlayerChanged(index);
+        }
+    }
+
+    public void setPlayerCount(int count) {
+        playerCount = count;
+        if (currentPlayerIndex >= count) {
+            setCurrentPlayerIndex(0);
+        }
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public int getValue(int index) {
+        return board.getValue(index);
+    }
+
+    public boolean isFlipped(int index) {
+        return board.isFlipped(index);
+    }
+
+    public boolean isMatched(int index) {
+        return board.isMatched(index);
+    }
+
+    public boolean isSeen(int index) {
+        return board.isSeen(index);
+    }
+
+    // True once both cards with this card's value have been turned over
+    public boolean isPairSeen(int index) {
+        return seenPerValue[board.getValue(index)] == 2;
+    }
+
+    public int getUnseenCount() {
+        return unseenCount;
+    }
+
+    public int getKnownSingles() {
+        return knownSingles;
+    }
+
+    public int getKnownPairs() {
+        return knownPairs;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public int getTries() {
+        return tries;
+    }
+
+    public int getMatchedPairs() {
+        return matchedPairs;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isWaitingForFlipBack() {
+        return waitingForFlipBack;
+    }
+
+    public int getFirstCardIndex() {
+        return firstCardIndex;
+    }
+
+    public int getSecondCardIndex() {
+        return secondCardIndex;
+    }
+
+    public int[] getFlippedCardIndices() {
+        if (firstCardIndex >= 0 && secondCardIndex >= 0) {
+            return new int[] { firstCardIndex, secondCardIndex };
+        } else if (firstCardIndex >= 0) {
+            return new int[] { firstCardIndex };
+        }
+        return new int[0];
+    }
+
+    public void addListener(GameListener listener) {
+        GameListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public void removeListener(GameListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GameListener[] updated = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, listeners.length - i - 1);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.demo.engine;
+
+// Callbacks fired by GameEngine whenever its state changes.
+// All methods have empty defaults so listeners only override what they need.
+public interface GameListener {
+
+    default void boardInitialized(int cardCount) {
+    }
+
+    default void cardFlipped(int index, boolean flipped) {
+    }
+
+    default void cardsMatched(int firstIndex, int secondIndex, int playerIndex) {
+    }
+
+    default void triesChanged(int tries) {
+    }
+
+    default void currentPlayerChanged(int playerIndex) {
+    }
+
+    default void gameOver() {
+    }
+
+    // The whole state was replaced at once (restored from a snapshot)
+    default void stateRestored() {
+    }
+
+    // Moved to another turn of the same game (undo, redo, rewind). Only the
+    // listed cards changed; the counters and the current player may have too.
+    default void turnRestored(int[] changedCards) {
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.demo.engine;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Delayed and periodic game actions (flip back, turn timeouts, clocks).
+// All schedulers share one daemon timer thread; when an action is due it is
+// handed to the scheduler's dispatcher, e.g. Platform::runLater for the UI or
+// Runnable::run for headless games.
+public class GameScheduler {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Executor dispatcher;
+
+    public GameScheduler(Executor dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    // Runs every action on the timer thread itself
+    public static GameScheduler headless() {
+        return new GameScheduler(Runnable::run);
+    }
+
+    public Handle schedule(Runnable action, long delay, TimeUnit unit) {
+        Handle handle = new Handle(action);
+        handle.future = TIMER.schedule(handle::dispatch, delay, unit);
+        return handle;
+    }
+
+    public Handle scheduleAtFixedRate(Runnable action, long period, TimeUnit unit) {
+        Handle handle = new Handle(action);
+        handle.future = TIMER.scheduleAtFixedRate(handle::dispatch, period, period, unit);
+        return handle;
+    }
+
+    // Returned by schedule calls. Cancelling also stops an action that is due
+    // but still waiting in the dispatcher's queue.
+    public final class Handle {
+        private final Runnable action;
+        private volatile boolean cancelled;
+        private volatile ScheduledFuture<?> future;
+
+        private Handle(Runnable action) {
+            this.action = action;
+        }
+
+        private void dispatch() {
+            if (!cancelled) {
+                dispatcher.execute(() -> {
+                    if (!cancelled) {
+                        action.run();
+                    }
+                });
+            }
+        }
+
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.demo.engine;
+
+import java.util.function.IntConsumer;
+
+// Immutable copy of a Board's flags (flipped, matched, seen) that shares
+// structure with the versions it was derived from.
+//
+// The flags are kept in a tree: leaves hold the three bitset words of 64
+// cards, inner nodes up to 32 children. with() copies only the path from
+// the root to one leaf, O(log n), and every other subtree is shared, so a
+// history of snapshots costs a few hundred bytes per turn instead of a copy
+// of the board. diff() skips shared subtrees by reference and only descends
+// where two versions differ.
+public final class PersistentBoard {
+    private static final int LEAF_BITS = 6;
+    private static final int BRANCH_BITS = 5;
+    private static final int BRANCH_MASK = (1 << BRANCH_BITS) - 1;
+
+    private record Leaf(long flipped, long matched, long seen) {
+    }
+
+    private final Object root; // a Leaf or an Object[] of children
+    private final int size;
+    private final int shift;   // bit position of the root's child index
+
+    private PersistentBoard(Object root, int size, int shift) {
+        this.root = root;
+        this.size = size;
+        this.shift = shift;
+    }
+
+    // Snapshot of the whole board, O(n / 64); later versions come from with()
+    public static PersistentBoard of(Board board) {
+        long[] flipped = board.copyFlipped();
+        long[] matched = board.copyMatched();
+        long[] seen = board.copySeen();
+        Object[] level = new Object[Math.max(1, flipped.length)];
+        for (int i = 0; i < flipped.length; i++) {
+            level[i] = new Leaf(flipped[i], matched[i], seen[i]);
+        }
+        if (flipped.length == 0) {
+            level[0] = new Leaf(0, 0, 0);
+        }
+        int shift = LEAF_BITS;
+        while (level.length > 1) {
+            Object[] parents = new Object[(level.length + BRANCH_MASK) >>> BRANCH_BITS];
+            for (int i = 0; i < parents.length; i++) {
+                int from = i << BRANCH_BITS;
+                Object[] children = new Object[Math.min(1 << BRANCH_BITS, level.length - from)];
+                System.arraycopy(level, from, children, 0, children.length);
+                parents[i] = children;
+            }
+            level = parents;
+            shift += BRANCH_BITS;
+        }
+        return new PersistentBoard(level[0], board.size(), shift - BRANCH_BITS);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFlipped(int index) {
+        return (leaf(index).flipped() & (1L << index)) != 0;
+    }
+
+    public boolean isMatched(int index) {
+        return (leaf(index).matched() & (1L << index)) != 0;
+    }
+
+    public boolean isSeen(int index) {
+        return (leaf(index).seen() & (1L << index)) != 0;
+    }
+
+    // A new version with one card's flags replaced; this one is unchanged
+    public PersistentBoard with(int index, boolean flipped, boolean matched, boolean seen) {
+        checkIndex(index);
+        Object updated = with(root, shift, index, flipped, matched, seen);
+        return updated == root ? this : new PersistentBoard(updated, size, shift);
+    }
+
+    private static Object with(Object node, int shift, int index,
+                               boolean flipped, boolean matched, boolean seen) {
+        if (node instanceof Leaf leaf) {
+            long bit = 1L << index;
+            Leaf updated = new Leaf(set(leaf.flipped(), bit, flipped), set(leaf.matched(), bit, matched),
+                    set(leaf.seen(), bit, seen));
+            return updated.equals(leaf) ? leaf : updated;
+        }
+        Object[] children = (Object[]) node;
+        int slot = (index >>> shift) & BRANCH_MASK;
+        Object child = with(children[slot], shift - BRANCH_BITS, index, flipped, matched, seen);
+        if (child == children[slot]) {
+            return node;
+        }
+        Object[] copy = children.clone();
+        copy[slot] = child;
+        return copy;
+    }
+
+    // Calls changed for every card whose flags differ between the two
+    // versions, in index order. Both must have the same size.
+    public void diff(PersistentBoard other, IntConsumer changed) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Boards of " + size + " and " + other.size + " cards");
+        }
+        diff(root, other.root, shift, 0, changed);
+    }
+
+    private static void diff(Object a, Object b, int shift, int firstCard, IntConsumer changed) {
+        if (a == b) {
+            return;
+        }
+        if (a instanceof Leaf left) {
+            Leaf right = (Leaf) b;
+            long bits = (left.flipped() ^ right.flipped()) | (left.matched() ^ right.matched())
+                    | (left.seen() ^ right.seen());
+            while (bits != 0) {
+                changed.accept(firstCard + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+            return;
+        }
+        Object[] left = (Object[]) a;
+        Object[] right = (Object[]) b;
+        for (int i = 0; i < left.length; i++) {
+            diff(left[i], right[i], shift - BRANCH_BITS, firstCard + (i << shift), changed);
+        }
+    }
+
+    private Leaf leaf(int index) {
+        checkIndex(index);
+        Object node = root;
+        for (int level = shift; !(node instanceof Leaf); level -= BRANCH_BITS) {
+            node = ((Object[]) node)[(index >>> level) & BRANCH_MASK];
+        }
+        return (Leaf) node;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Card " + index + " of " + size);
+        }
+    }
+
+    private static long set(long word, long bit, boolean value) {
+        return value ? word | bit : word & ~bit;
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.demo.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Undo, redo and rewind for one game. At the end of every turn checkpoint()
+// stores the position as a PersistentBoard plus a few counters; the board
+// shares everything but the changed path with the previous turn, so a turn
+// costs O(log n) memory and time however large the board is.
+//
+// Between checkpoints the history only collects the indices of the cards
+// that changed (from the engine events). Stepping to another turn diffs
+// the two boards, which skips everything they share, and hands only the
+// changed cards to the engine and its listeners.
+public final class TurnHistory implements GameListener {
+
+    // Position at the end of a turn. playerPairs are the pairs each player
+    // found in this game so far.
+    public record Turn(PersistentBoard board, int tries, int matchedPairs, int currentPlayerIndex,
+                       int unseenCount, int knownSingles, int knownPairs, int[] playerPairs) {
+    }
+
+    private final GameEngine engine;
+    private final List<Turn> turns = new ArrayList<>();
+    private int current;
+    private int[] dirty = new int[8];
+    private int dirtyCount;
+    private int[] changed = new int[8];
+    private int changedCount;
+    private int[] playerPairs = new int[0];
+
+    public TurnHistory(GameEngine engine) {
+        this.engine = engine;
+        engine.addListener(this);
+    }
+
+    // Starts over with the current position as turn 0
+    public void restart(int[] pairsPerPlayer) {
+        turns.clear();
+        dirtyCount = 0;
+        playerPairs = pairsPerPlayer.clone();
+        turns.add(capture(PersistentBoard.of(engine.getBoard())));
+        current = 0;
+    }
+
+    // Ends the current turn. Turns after the current one (undone turns) are
+    // dropped. Returns false while cards are open or if nothing changed.
+    public boolean checkpoint() {
+        if (engine.getFirstCardIndex() >= 0 || engine.isWaitingForFlipBack() || isAtCheckpoint()) {
+            return false;
+        }
+        PersistentBoard board = turns.get(current).board();
+        for (int i = 0; i < dirtyCount; i++) {
+            int index = dirty[i];
+            board = board.with(index, engine.isFlipped(index), engine.isMatched(index), engine.isSeen(index));
+        }
+        dirtyCount = 0;
+        turns.subList(current + 1, turns.size()).clear();
+        turns.add(capture(board));
+        current++;
+        return true;
+    }
+
+    // True if the engine is exactly at the end of the current turn, false
+    // while a turn is in progress
+    public boolean isAtCheckpoint() {
+        Turn turn = turns.get(current);
+        return dirtyCount == 0 && engine.getFirstCardIndex() < 0
+                && engine.getTries() == turn.tries() && engine.getCurrentPlayerIndex() == turn.currentPlayerIndex();
+    }
+
+    public boolean canUndo() {
+        return current > 0 || !isAtCheckpoint();
+    }
+
+    public boolean canRedo() {
+        return current < turns.size() - 1;
+    }
+
+    // Moves to the end of the given turn (0 is the fresh board); later turns
+    // stay available for redo until the next checkpoint
+    public void rewind(int turn) {
+        if (turn < 0 || turn >= turns.size()) {
+            throw new IndexOutOfBoundsException("Turn " + turn + " of " + turns.size());
+        }
+        Turn target = turns.get(turn);
+        int[] changedCards = changedCards(target);
+        current = turn;
+        playerPairs = target.playerPairs().clone();
+        engine.restoreTurn(target, changedCards);
+    }
+
+    // Moves to a turn of this game that may already have been dropped from
+    // the history (see JournalReplayer) and starts over from it as turn 0
+    public void jumpTo(Turn target) {
+        int[] changedCards = changedCards(target);
+        turns.clear();
+        turns.add(target);
+        current = 0;
+        playerPairs = target.playerPairs().clone();
+        engine.restoreTurn(target, changedCards);
+    }
+
+    public int getTurn() {
+        return current;
+    }
+
+    public int getLastTurn() {
+        return turns.size() - 1;
+    }
+
+    public Turn getCurrent() {
+        return turns.get(current);
+    }
+
+    private Turn capture(PersistentBoard board) {
+        return new Turn(board, engine.getTries(), engine.getMatchedPairs(), engine.getCurrentPlayerIndex(),
+                engine.getUnseenCount(), engine.getKnownSingles(), engine.getKnownPairs(), playerPairs.clone());
+    }
+
+    // Cards that differ between the engine and the target turn. Cards
+    // touched since the last checkpoint are not in its board yet.
+    private int[] changedCards(Turn target) {
+        changedCount = 0;
+        for (int i = 0; i < dirtyCount; i++) {
+            addChanged(dirty[i]);
+        }
+        turns.get(current).board().diff(target.board(), this::addChanged);
+        dirtyCount = 0;
+        return Arrays.copyOf(changed, changedCount);
+    }
+
+    private void addChanged(int index) {
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, changedCount * 2);
+        }
+        changed[changedCount++] = index;
+    }
+
+    private void markDirty(int index) {
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        dirty[dirtyCount++] = index;
+    }
+
+    @Override
+    public void boardInitialized(int cardCount) {
+        restart(new int[engine.getPlayerCount()]);
+    }
+
+    @Override
+    public void cardFlipped(int index, boolean flipped) {
+        markDirty(index);
+    }
+
+    @Override
+    public void cardsMatched(int firstIndex, int secondIndex, int playerIndex) {
+        markDirty(firstIndex);
+        markDirty(secondIndex);
+        if (playerIndex >= 0) {
+            if (playerIndex >= playerPairs.length) {
+                playerPairs = Arrays.copyOf(playerPairs, playerIndex + 1);
+            }
+            playerPairs[playerIndex]++;
+        }
+    }
+
+    @Override
+    public void stateRestored() {
+        restart(playerPairs);
+    }
+}
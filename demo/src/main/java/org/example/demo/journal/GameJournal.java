@@ -0,0 +1,308 @@
+package org.example.demo.journal;
+
+import org.example.demo.engine.EngineState;
+import org.example.demo.engine.GameScheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Append-only log of game events, written through a memory-mapped file.
+//
+// Layout: a 16 byte header (magic, version, committed length) followed by
+// events of one type byte and a type-dependent number of little-endian
+// fields (see length()); only STATE has a size that depends on the board.
+// Appending only copies a few bytes into the mapping; a commit forces
+// everything appended since the last one to disk and then moves the
+// committed length in the header. Commits run every COMMIT_INTERVAL_MILLIS,
+// so one fsync covers many events (group commit). They run on a journal
+// thread of their own, so a slow disk does not hold up the game timers on
+// the shared GameScheduler thread. A crash loses at most the events since
+// the last commit, and readers never see a half-written event.
+//
+// The mapping grows by doubling up to 2 GB. If it cannot grow, the journal
+// fails: the failure handler is told once and every later event is dropped,
+// so the journal ends at the last event it could write.
+//
+// Appends must come from one thread; commit() may be called from any thread.
+public final class GameJournal implements Closeable {
+    static final int MAGIC = 0x4D4A524E; // "MJRN"
+    // Version 2 added REWIND, version 3 STATE. Older files are read as they
+    // are and upgraded in place when opened for appending.
+    static final int VERSION = 3;
+    static final int OLDEST_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int COMMITTED_OFFSET = 8;
+
+    // Event types
+    public static final byte INIT = 1;          // seed:long, pairs:int, players:int, currentPlayer:int
+    public static final byte FLIP = 2;          // index:int
+    public static final byte MATCH = 3;         // first:int, second:int, player:int
+    public static final byte MISMATCH = 4;      // first:int, second:int
+    public static final byte NEXT_PLAYER = 5;   // player:int
+    public static final byte FLIP_BACK = 6;     // end of a turn, both open cards are turned over
+    public static final byte FLIP_BACK_ONE = 7; // index:int
+    public static final byte PLAYERS = 8;       // count:int
+    public static final byte REWIND = 9;        // offset:long, the game continues from its state at that offset
+    // Follows INIT when a game continues from a saved position: cardCount:int, tries:int,
+    // matchedPairs:int, currentPlayer:int, first:int, second:int, waiting:byte, words:int,
+    // then words longs each of the flipped, matched and seen bitsets
+    public static final byte STATE = 10;
+    static final int STATE_HEADER_SIZE = 30;
+
+    private static final long COMMIT_INTERVAL_MILLIS = 100;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final ExecutorService COMMITS = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "game-journal");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final FileChannel channel;
+    private final GameScheduler.Handle committer;
+    private MappedByteBuffer buffer;
+    private volatile int writePosition;
+    private int committedPosition;
+    private boolean failed;
+    private Consumer<IOException> failureHandler = Throwable::printStackTrace;
+
+    private GameJournal(FileChannel channel, MappedByteBuffer buffer, int position) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.writePosition = position;
+        this.committedPosition = position;
+        this.committer = new GameScheduler(COMMITS).scheduleAtFixedRate(
+                this::commit, COMMIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // Opens the journal for appending; events after the last commit of an
+    // earlier run are discarded
+    public static GameJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            MappedByteBuffer buffer = map(channel, Math.max(size, INITIAL_CAPACITY));
+            int position;
+            if (size < HEADER_SIZE) {
+                buffer.putInt(0, MAGIC).putInt(4, VERSION).putLong(COMMITTED_OFFSET, HEADER_SIZE);
+                buffer.force(0, HEADER_SIZE);
+                position = HEADER_SIZE;
+            } else {
+                checkHeader(buffer, file);
+                if (buffer.getInt(4) != VERSION) {
+                    buffer.putInt(4, VERSION);
+                    buffer.force(0, HEADER_SIZE);
+                }
+                position = (int) buffer.getLong(COMMITTED_OFFSET);
+            }
+            return new GameJournal(channel, buffer, position);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void init(long seed, int pairs, int players, int currentPlayer) {
+        int pos = reserve(21);
+        if (pos >= 0) {
+            buffer.put(pos, INIT).putLong(pos + 1, seed).putInt(pos + 9, pairs)
+                    .putInt(pos + 13, players).putInt(pos + 17, currentPlayer);
+            publish(pos + 21);
+        }
+    }
+
+    public void flip(int index) {
+        append(FLIP, index);
+    }
+
+    public void match(int first, int second, int player) {
+        int pos = reserve(13);
+        if (pos >= 0) {
+            buffer.put(pos, MATCH).putInt(pos + 1, first).putInt(pos + 5, second).putInt(pos + 9, player);
+            publish(pos + 13);
+        }
+    }
+
+    public void mismatch(int first, int second) {
+        int pos = reserve(9);
+        if (pos >= 0) {
+            buffer.put(pos, MISMATCH).putInt(pos + 1, first).putInt(pos + 5, second);
+            publish(pos + 9);
+        }
+    }
+
+    public void nextPlayer(int player) {
+        append(NEXT_PLAYER, player);
+    }
+
+    public void flipBack() {
+        int pos = reserve(1);
+        if (pos >= 0) {
+            buffer.put(pos, FLIP_BACK);
+            publish(pos + 1);
+        }
+    }
+
+    public void flipBackOne(int index) {
+        append(FLIP_BACK_ONE, index);
+    }
+
+    public void players(int count) {
+        append(PLAYERS, count);
+    }
+
+    // Undo, redo or rewind: the game goes back to (or forward to) the state
+    // it had at an earlier offset of this journal
+    public void rewind(long offset) {
+        int pos = reserve(9);
+        if (pos >= 0) {
+            buffer.put(pos, REWIND).putLong(pos + 1, offset);
+            publish(pos + 9);
+        }
+    }
+
+    // The game continues from a saved position on the board of the last INIT
+    public void state(EngineState state) {
+        int words = state.flipped().length;
+        int pos = reserve(STATE_HEADER_SIZE + 3 * 8 * words);
+        if (pos < 0) {
+            return;
+        }
+        buffer.put(pos, STATE).putInt(pos + 1, state.cardCount()).putInt(pos + 5, state.tries())
+                .putInt(pos + 9, state.matchedPairs()).putInt(pos + 13, state.currentPlayerIndex())
+                .putInt(pos + 17, state.firstCardIndex()).putInt(pos + 21, state.secondCardIndex())
+                .put(pos + 25, (byte) (state.waitingForFlipBack() ? 1 : 0)).putInt(pos + 26, words);
+        int at = pos + STATE_HEADER_SIZE;
+        for (long[] bits : new long[][] { state.flipped(), state.matched(), state.seen() }) {
+            for (long word : bits) {
+                buffer.putLong(at, word);
+                at += 8;
+            }
+        }
+        publish(at);
+    }
+
+    // Called on the appending thread, in the middle of an append, when the
+    // journal fails
+    public void setOnFailure(Consumer<IOException> handler) {
+        failureHandler = handler;
+    }
+
+    // True once an event could not be written; no later event is recorded
+    public boolean isFailed() {
+        return failed;
+    }
+
+    // Offset the next event will be written at
+    public long position() {
+        return writePosition;
+    }
+
+    private void append(byte type, int value) {
+        int pos = reserve(5);
+        if (pos >= 0) {
+            buffer.put(pos, type).putInt(pos + 1, value);
+            publish(pos + 5);
+        }
+    }
+
+    // Start offset for an event of the given length, or -1 once the journal has failed
+    private int reserve(int length) {
+        if (failed) {
+            return -1;
+        }
+        int pos = writePosition;
+        if (pos + length > buffer.capacity()) {
+            grow(pos + length);
+        }
+        return failed ? -1 : pos;
+    }
+
+    private void publish(int end) {
+        writePosition = end;
+    }
+
+    private synchronized void grow(int required) {
+        long capacity = Math.max(required, 2L * buffer.capacity());
+        if (capacity > Integer.MAX_VALUE) {
+            capacity = Integer.MAX_VALUE;
+        }
+        try {
+            if (capacity < required) {
+                throw new IOException("Game journal is full");
+            }
+            buffer = map(channel, capacity);
+        } catch (IOException e) {
+            failed = true;
+            failureHandler.accept(e);
+        }
+    }
+
+    // Makes everything appended so far durable and visible to readers
+    public synchronized void commit() {
+        int end = writePosition;
+        if (end == committedPosition || !channel.isOpen()) {
+            return;
+        }
+        buffer.force(committedPosition, end - committedPosition);
+        buffer.putLong(COMMITTED_OFFSET, end);
+        buffer.force(0, HEADER_SIZE);
+        committedPosition = end;
+    }
+
+    @Override
+    public void close() throws IOException {
+        committer.cancel();
+        commit();
+        channel.close();
+    }
+
+    // Length of the event at pos including its type byte, or -1 for an unknown type
+    static int length(ByteBuffer buffer, int pos) {
+        byte type = buffer.get(pos);
+        if (type == STATE) {
+            return STATE_HEADER_SIZE + 3 * 8 * buffer.getInt(pos + 26);
+        }
+        return length(type);
+    }
+
+    // Length of a fixed-size event including its type byte, or -1 for STATE
+    // and unknown types
+    static int length(byte type) {
+        return switch (type) {
+            case INIT -> 21;
+            case FLIP, NEXT_PLAYER, FLIP_BACK_ONE, PLAYERS -> 5;
+            case MATCH -> 13;
+            case MISMATCH, REWIND -> 9;
+            case FLIP_BACK -> 1;
+            default -> -1;
+        };
+    }
+
+    // Rejects files that are no journal or were written by a newer build
+    static void checkHeader(MappedByteBuffer header, Path file) throws IOException {
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a game journal: " + file);
+        }
+        int version = header.getInt(4);
+        if (version < OLDEST_VERSION || version > VERSION) {
+            throw new IOException("Unsupported game journal version " + version + ": " + file);
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long capacity) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        return mapped;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.demo.journal;
+
+import org.example.demo.engine.EngineState;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Read-only view of the committed part of a journal. Events are decoded
+// straight from the mapped file and handed to a JournalVisitor.
+public final class JournalReader implements Closeable {
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int end;
+
+    private JournalReader(FileChannel channel, MappedByteBuffer buffer, int end) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.end = end;
+    }
+
+    public static JournalReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < GameJournal.HEADER_SIZE) {
+                throw new IOException("Not a game journal: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            GameJournal.checkHeader(buffer, file);
+            long committed = buffer.getLong(GameJournal.COMMITTED_OFFSET);
+            if (committed < GameJournal.HEADER_SIZE || committed > size) {
+                throw new IOException("Corrupt game journal: " + file);
+            }
+            return new JournalReader(channel, buffer, (int) committed);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Offset of the first event
+    public long start() {
+        return GameJournal.HEADER_SIZE;
+    }
+
+    // Offset just past the last committed event
+    public long end() {
+        return end;
+    }
+
+    public void scan(JournalVisitor visitor) {
+        scan(start(), end, visitor);
+    }
+
+    // Visits the events starting in [from, to); from must be an event offset
+    public void scan(long from, long to, JournalVisitor visitor) {
+        int pos = (int) from;
+        int limit = (int) Math.min(to, end);
+        MappedByteBuffer b = buffer;
+        while (pos < limit) {
+            byte type = b.get(pos);
+            switch (type) {
+                case GameJournal.INIT -> visitor.init(pos, b.getLong(pos + 1), b.getInt(pos + 9),
+                        b.getInt(pos + 13), b.getInt(pos + 17));
+                case GameJournal.FLIP -> visitor.flip(pos, b.getInt(pos + 1));
+                case GameJournal.MATCH -> visitor.match(pos, b.getInt(pos + 1), b.getInt(pos + 5), b.getInt(pos + 9));
+                case GameJournal.MISMATCH -> visitor.mismatch(pos, b.getInt(pos + 1), b.getInt(pos + 5));
+                case GameJournal.NEXT_PLAYER -> visitor.nextPlayer(pos, b.getInt(pos + 1));
+                case GameJournal.FLIP_BACK -> visitor.flipBack(pos);
+                case GameJournal.FLIP_BACK_ONE -> visitor.flipBackOne(pos, b.getInt(pos + 1));
+                case GameJournal.PLAYERS -> visitor.players(pos, b.getInt(pos + 1));
+                case GameJournal.REWIND -> visitor.rewind(pos, b.getLong(pos + 1));
+                case GameJournal.STATE -> visitor.state(pos, readState(b, pos));
+                default -> throw new IllegalStateException("Unknown journal event " + type + " at " + pos);
+            }
+            pos += GameJournal.length(b, pos);
+        }
+    }
+
+    // Offset of the INIT event of the game that is running at the given
+    // offset, or -1 if no game was started before it. Only type bytes are read.
+    public long gameStart(long offset) {
+        int pos = GameJournal.HEADER_SIZE;
+        int limit = (int) Math.min(offset, end);
+        long start = -1;
+        while (pos < limit) {
+            byte type = buffer.get(pos);
+            if (type == GameJournal.INIT) {
+                start = pos;
+            }
+            int length = GameJournal.length(buffer, pos);
+            if (length < 0) {
+                throw new IllegalStateException("Unknown journal event " + type + " at " + pos);
+            }
+            pos += length;
+        }
+        return start;
+    }
+
+    private static EngineState readState(MappedByteBuffer b, int pos) {
+        int words = b.getInt(pos + 26);
+        long[][] bits = new long[3][words];
+        int at = pos + GameJournal.STATE_HEADER_SIZE;
+        for (long[] set : bits) {
+            for (int i = 0; i < words; i++) {
+                set[i] = b.getLong(at);
+                at += 8;
+            }
+        }
+        return new EngineState(b.getInt(pos + 1), bits[0], bits[1], bits[2], b.getInt(pos + 5),
+                b.getInt(pos + 9), b.getInt(pos + 13), b.getInt(pos + 17), b.getInt(pos + 21), b.get(pos + 25) != 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Usage: JournalReader <journal file>
+    // Prints per-game totals, as an example of scanning a journal for analytics
+    public static void main(String[] args) throws IOException {
+        long started = System.nanoTime();
+        try (JournalReader reader = open(Path.of(args[0]))) {
+            long[] totals = new long[4]; // games, flips, matches, mismatches
+            reader.scan(new JournalVisitor() {
+                @Override
+                public void init(long offset, long seed, int pairs, int players, int currentPlayer) {
+                    totals[0]++;
+                }
+
+                @Override
+                public void flip(long offset, int index) {
+                    totals[1]++;
+                }
+
+                @Override
+                public void match(long offset, int first, int second, int player) {
+                    totals[2]++;
+                }
+
+                @Override
+                public void mismatch(long offset, int first, int second) {
+                    totals[3]++;
+                }
+            });
+            double seconds = (System.nanoTime() - started) / 1e9;
+            long tries = totals[2] + totals[3];
+            System.out.printf("%d games, %d flips, %d matches, %d mismatches%n",
+                    totals[0], totals[1], totals[2], totals[3]);
+            System.out.printf("mean tries per game: %.2f%n", totals[0] == 0 ? 0.0 : (double) tries / totals[0]);
+            System.out.printf("scanned %.1f MB in %.3f s%n", reader.end() / 1e6, seconds);
+        }
+    }
+}
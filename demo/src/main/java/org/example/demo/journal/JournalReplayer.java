@@ -0,0 +1,139 @@
+package org.example.demo.journal;
+
+import org.example.demo.engine.CardDeck;
+import org.example.demo.engine.EngineState;
+import org.example.demo.engine.GameEngine;
+import org.example.demo.engine.TurnHistory;
+
+import java.util.Arrays;
+
+// Rebuilds engine state from journal events. Only the commands are applied
+// (deal, restored positions, flips, flip backs, player changes); matches
+// and mismatches follow from the rules and are ignored.
+//
+// A rewind points back to the offset where an earlier turn ended. The
+// replayer keeps the state at every offset of the current game where no
+// cards were open, as TurnHistory turns that share their boards, and jumps
+// straight to it; the game is never replayed a second time.
+public class JournalReplayer implements JournalVisitor {
+    private final GameEngine engine;
+    private final TurnHistory history;
+    private int[] values = new int[0];
+
+    // Offsets of the current game at which a new turn state began, ascending
+    private long[] turnOffsets = new long[64];
+    private TurnHistory.Turn[] turns = new TurnHistory.Turn[64];
+    private int turnCount;
+
+    public JournalReplayer(GameEngine engine) {
+        this.engine = engine;
+        this.history = new TurnHistory(engine);
+    }
+
+    // Restores the state right before the event at offset (or at the end of
+    // the journal). Returns false if no game was started before the offset.
+    public boolean replayTo(JournalReader reader, long offset) {
+        long start = reader.gameStart(offset);
+        if (start < 0) {
+            return false;
+        }
+        reader.scan(start, offset, this);
+        return true;
+    }
+
+    // Deals the recorded board. Subclasses that keep their own view of the
+    // cards override this.
+    protected void deal(long seed, int pairs) {
+        if (values.length != pairs * 2) {
+            values = new int[pairs * 2];
+        }
+        CardDeck.dealInto(values, pairs, seed);
+        engine.initialize(values);
+    }
+
+    // Called before every event: remembers the state at this offset if a
+    // turn has just ended there
+    private void endTurn(long offset) {
+        if (!history.checkpoint() && !history.isAtCheckpoint()) {
+            return; // cards are open
+        }
+        TurnHistory.Turn turn = history.getCurrent();
+        if (turnCount > 0 && turns[turnCount - 1] == turn) {
+            return; // nothing changed since the last one
+        }
+        if (turnCount == turns.length) {
+            turnOffsets = Arrays.copyOf(turnOffsets, turnCount * 2);
+            turns = Arrays.copyOf(turns, turnCount * 2);
+        }
+        turnOffsets[turnCount] = offset;
+        turns[turnCount] = turn;
+        turnCount++;
+    }
+
+    @Override
+    public void init(long offset, long seed, int pairs, int players, int currentPlayer) {
+        clearTurns();
+        engine.setPlayerCount(players);
+        engine.setCurrentPlayerIndex(currentPlayer);
+        deal(seed, pairs);
+    }
+
+    @Override
+    public void flip(long offset, int index) {
+        endTurn(offset);
+        engine.flipCard(index);
+    }
+
+    @Override
+    public void nextPlayer(long offset, int player) {
+        endTurn(offset);
+        engine.setCurrentPlayerIndex(player);
+    }
+
+    @Override
+    public void flipBack(long offset) {
+        endTurn(offset);
+        engine.flipCardsBack();
+    }
+
+    @Override
+    public void flipBackOne(long offset, int index) {
+        endTurn(offset);
+        engine.flipCardBack(index);
+    }
+
+    @Override
+    public void players(long offset, int count) {
+        endTurn(offset);
+        engine.setPlayerCount(count);
+    }
+
+    // The game continues from a saved position, which is where its turns start
+    @Override
+    public void state(long offset, EngineState state) {
+        engine.restoreState(state);
+        clearTurns();
+        turnOffsets[0] = offset;
+        turns[0] = history.getCurrent();
+        turnCount = 1;
+    }
+
+    private void clearTurns() {
+        Arrays.fill(turns, 0, turnCount, null);
+        turnCount = 0;
+    }
+
+    // The state at target is the last one remembered at or before it
+    @Override
+    public void rewind(long offset, long target) {
+        endTurn(offset);
+        int i = Arrays.binarySearch(turnOffsets, 0, turnCount, target);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        if (i < 0) {
+            throw new IllegalStateException("Rewind at " + offset + " to " + target + " before its game");
+        }
+        history.jumpTo(turns[i]);
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.demo.journal;
+
+import org.example.demo.engine.EngineState;
+
+// Receives journal events as primitives, so a scan allocates nothing per
+// event (except for the rare STATE). offset is the byte position of the
+// event in the journal file.
+public interface JournalVisitor {
+    default void init(long offset, long seed, int pairs, int players, int currentPlayer) {
+    }
+
+    default void flip(long offset, int index) {
+    }
+
+    default void match(long offset, int first, int second, int player) {
+    }
+
+    default void mismatch(long offset, int first, int second) {
+    }
+
+    default void nextPlayer(long offset, int player) {
+    }
+
+    default void flipBack(long offset) {
+    }
+
+    default void flipBackOne(long offset, int index) {
+    }
+
+    default void players(long offset, int count) {
+    }
+
+    default void rewind(long offset, long target) {
+    }
+
+    default void state(long offset, EngineState state) {
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("org.example.demo.Jdbc")
+@Label("JDBC Call")
+@Category({ "Memory Game", "Database" })
+@Description("One database operation of DatabaseService or the write-behind thread")
+@StackTrace(false)
+class JdbcEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long durationNanos;
+}
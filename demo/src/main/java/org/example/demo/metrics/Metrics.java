@@ -0,0 +1,194 @@
+package org.example.demo.metrics;
+
+import jdk.jfr.FlightRecorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+
+// Application metrics: counters, latency histograms and startup phases,
+// mirrored as JFR events for recordings. Switched off with
+// -Dmemory.metrics=false; ENABLED is a constant, so the JIT removes the
+// disabled recording paths entirely, and start() returns 0 so callers skip
+// even the clock read. JFR events only cost a flag check unless a recording
+// has them enabled.
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("memory.metrics", "true"));
+
+    // Views passed to rendered()
+    public static final String BOARD_VIEW = "board";
+    public static final String LIST_VIEW = "list";
+
+    private static final List<Counter> COUNTERS = new CopyOnWriteArrayList<>();
+    private static final List<LatencyHistogram> HISTOGRAMS = new CopyOnWriteArrayList<>();
+    private static final Map<String, LatencyHistogram> JDBC = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+    private static final Map<String, Long> STARTUP_PHASES = new LinkedHashMap<>();
+
+    public static final Counter FLIPS = counter("flips");
+    public static final Counter CARDS_RENDERED = counter("cards.rendered");
+    public static final LatencyHistogram FLIP_TO_RENDER = histogram("flip.to.render");
+    public static final LatencyHistogram BOARD_RENDER = histogram("render.board");
+    public static final LatencyHistogram LIST_RENDER = histogram("render.list");
+
+    // Oldest flip that has not been painted yet; FX thread only
+    private static long pendingFlipNanos;
+
+    private Metrics() {
+    }
+
+    public static Counter counter(String name) {
+        Counter counter = new Counter(name);
+        COUNTERS.add(counter);
+        return counter;
+    }
+
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = new LatencyHistogram(name);
+        HISTOGRAMS.add(histogram);
+        return histogram;
+    }
+
+    // A value read when the report is built, e.g. a cache size
+    public static void gauge(String name, LongSupplier value) {
+        GAUGES.put(name, value);
+    }
+
+    // Timestamp for a measurement, 0 when metrics are disabled
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    // A card was turned over by the game
+    public static void flipped() {
+        if (ENABLED) {
+            FLIPS.increment();
+            if (pendingFlipNanos == 0) {
+                pendingFlipNanos = System.nanoTime();
+            }
+        }
+    }
+
+    // A view painted the given number of cards in a pulse that started at renderStart
+    public static void rendered(String view, int cards, long renderStart) {
+        if (renderStart == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        long renderNanos = now - renderStart;
+        long flipToRender = pendingFlipNanos == 0 ? 0 : now - pendingFlipNanos;
+        pendingFlipNanos = 0;
+
+        CARDS_RENDERED.add(cards);
+        (BOARD_VIEW.equals(view) ? BOARD_RENDER : LIST_RENDER).record(renderNanos);
+        if (flipToRender > 0) {
+            FLIP_TO_RENDER.record(flipToRender);
+        }
+
+        if (recording()) {
+            RenderEvent event = new RenderEvent();
+            if (event.shouldCommit()) {
+                event.view = view;
+                event.cards = cards;
+                event.renderNanos = renderNanos;
+                event.flipToRenderNanos = flipToRender;
+                event.commit();
+            }
+        }
+    }
+
+    // Records one database call under its operation name
+    public static void jdbc(String operation, long start) {
+        if (start == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        JDBC.computeIfAbsent(operation, name -> histogram("jdbc." + name)).record(nanos);
+
+        if (recording()) {
+            JdbcEvent event = new JdbcEvent();
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.durationNanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    public static void startupPhase(String phase, long start) {
+        if (start == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        synchronized (STARTUP_PHASES) {
+            STARTUP_PHASES.merge(phase, nanos, Long::sum);
+        }
+
+        if (recording()) {
+            StartupPhaseEvent event = new StartupPhaseEvent();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.durationNanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    // Events are only created once a recording has started the flight
+    // recorder; the first event would otherwise initialize JFR itself, which
+    // takes several hundred milliseconds and would land in startup
+    private static boolean recording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    public static String report() {
+        StringBuilder out = new StringBuilder();
+        out.append("Memory game metrics, ").append(LocalDateTime.now().withNano(0)).append('\n');
+        if (!ENABLED) {
+            return out.append("disabled (-Dmemory.metrics=false)\n").toString();
+        }
+
+        out.append("\nStartup phases (ms)\n");
+        synchronized (STARTUP_PHASES) {
+            STARTUP_PHASES.forEach((phase, nanos) ->
+                out.append(String.format("  %-24s %10.2f%n", phase, nanos / 1e6)));
+        }
+
+        out.append("\nCounters\n");
+        for (Counter counter : COUNTERS) {
+            out.append(String.format("  %-24s %10d%n", counter.getName(), counter.get()));
+        }
+
+        if (!GAUGES.isEmpty()) {
+            out.append("\nGauges\n");
+            GAUGES.forEach((name, value) ->
+                out.append(String.format("  %-24s %10d%n", name, value.getAsLong())));
+        }
+
+        out.append("\nLatencies (us)             count       mean        p50        p99      p99.9        max\n");
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            out.append(String.format("  %-20s %9d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                histogram.getName(), histogram.getCount(), histogram.getMeanNanos() / 1e3,
+                histogram.percentileNanos(50) / 1e3, histogram.percentileNanos(99) / 1e3,
+                histogram.percentileNanos(99.9) / 1e3, histogram.getMaxNanos() / 1e3));
+        }
+        return out.toString();
+    }
+
+    public static void dump(Path file) throws IOException {
+        Files.writeString(file, report());
+    }
+
+    public static void reset() {
+        COUNTERS.forEach(Counter::reset);
+        HISTOGRAMS.forEach(LatencyHistogram::reset);
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("org.example.demo.Render")
+@Label("Board Render")
+@Category({ "Memory Game", "UI" })
+@Description("Cards repainted in one pulse, and how long ago the oldest pending flip happened")
+@StackTrace(false)
+class RenderEvent extends jdk.jfr.Event {
+    @Label("View")
+    String view;
+
+    @Label("Cards")
+    int cards;
+
+    @Label("Render Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long renderNanos;
+
+    @Label("Flip To Render")
+    @Timespan(Timespan.NANOSECONDS)
+    long flipToRenderNanos;
+}
@@ -0,0 +1,168 @@
+package org.example.demo.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Measures how long a start takes until the first frame is on screen and
+// until the database has been merged in, and appends one line per start to
+// a CSV file so cold and warm starts can be compared over time.
+//
+// The first start after the machine booted counts as cold: the OS file
+// cache does not hold the JDK, JavaFX or the database yet. Later starts in
+// the same boot are warm. The boot time of the last start is kept in a
+// marker file next to the log. Where the boot time cannot be found the kind
+// is "unknown"; -Dmemory.startKind=cold|warm overrides the detection, e.g.
+// after dropping the OS file cache.
+public final class StartupLog {
+    public static final Path DEFAULT_FILE = Path.of("memory-game-startup.csv");
+
+    private static final String HEADER = "time,kind,jvmMillis,firstFrameMillis,databaseMillis";
+    private static final long LAUNCH_NANOS = System.nanoTime();
+    private static final Instant LAUNCH_TIME = Instant.now();
+
+    // Set once each, the second one writes the log line
+    private static long firstFrameNanos;
+    private static long databaseNanos;
+    private static boolean written;
+
+    private StartupLog() {
+    }
+
+    // Call first thing in main(); the clock starts when this class is loaded
+    public static void launched() {
+    }
+
+    public static void firstFrame() {
+        boolean complete;
+        synchronized (StartupLog.class) {
+            if (firstFrameNanos != 0) {
+                return;
+            }
+            firstFrameNanos = System.nanoTime() - LAUNCH_NANOS;
+            complete = databaseNanos != 0;
+        }
+        Metrics.startupPhase("first frame", LAUNCH_NANOS);
+        if (complete) {
+            write(DEFAULT_FILE);
+        }
+    }
+
+    public static void databaseReady() {
+        boolean complete;
+        synchronized (StartupLog.class) {
+            if (databaseNanos != 0) {
+                return;
+            }
+            databaseNanos = System.nanoTime() - LAUNCH_NANOS;
+            complete = firstFrameNanos != 0;
+        }
+        Metrics.startupPhase("database ready", LAUNCH_NANOS);
+        if (complete) {
+            write(DEFAULT_FILE);
+        }
+    }
+
+    // Time from JVM start to main(): class loading and JavaFX runtime start-up
+    private static long jvmMillis() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, LAUNCH_TIME).toMillis())
+                .orElse(-1L);
+    }
+
+    // Cold for the first start since boot, warm for later ones
+    private static String detectKind(Path marker) throws IOException {
+        String boot = bootTime();
+        if (boot == null) {
+            return "unknown";
+        }
+        String previous = Files.exists(marker) ? Files.readString(marker, StandardCharsets.UTF_8).trim() : "";
+        Files.writeString(marker, boot, StandardCharsets.UTF_8);
+        return boot.equals(previous) ? "warm" : "cold";
+    }
+
+    // When the machine booted (Linux: btime in /proc/stat, elsewhere the start
+    // of process 1), or null if that is not known
+    private static String bootTime() {
+        Path stat = Path.of("/proc/stat");
+        if (Files.isReadable(stat)) {
+            try {
+                for (String line : Files.readAllLines(stat, StandardCharsets.UTF_8)) {
+                    if (line.startsWith("btime ")) {
+                        return line.substring(6).trim();
+                    }
+                }
+            } catch (IOException e) {
+                // fall back to process 1
+            }
+        }
+        return ProcessHandle.of(1)
+                .flatMap(init -> init.info().startInstant())
+                .map(start -> Long.toString(start.getEpochSecond()))
+                .orElse(null);
+    }
+
+    private static synchronized void write(Path file) {
+        if (written) {
+            return;
+        }
+        written = true;
+        try {
+            boolean exists = Files.exists(file);
+            String kind = System.getProperty("memory.startKind");
+            if (kind == null) {
+                kind = detectKind(file.resolveSibling(file.getFileName() + ".boot"));
+            }
+            long jvm = jvmMillis();
+            long firstFrame = firstFrameNanos / 1_000_000;
+            long database = databaseNanos / 1_000_000;
+
+            String line = LocalDateTime.now().withNano(0) + "," + kind + "," + jvm + ","
+                    + firstFrame + "," + database + System.lineSeparator();
+            Files.writeString(file, exists ? line : HEADER + System.lineSeparator() + line,
+                    StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+            System.out.printf("Startup (%s): first frame after %d ms, database after %d ms (+%d ms JVM start)%n",
+                    kind, firstFrame, database, jvm);
+            System.out.print(summary(file));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Median time to first frame per kind of start, over all recorded starts
+    public static String summary(Path file) throws IOException {
+        List<Long> cold = new ArrayList<>();
+        List<Long> warm = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split(",");
+            if (fields.length != 5 || line.equals(HEADER)) {
+                continue;
+            }
+            long total = Math.max(0, Long.parseLong(fields[2])) + Long.parseLong(fields[3]);
+            if ("cold".equals(fields[1])) {
+                cold.add(total);
+            } else if ("warm".equals(fields[1])) {
+                warm.add(total);
+            }
+        }
+        return summaryLine("cold", cold) + summaryLine("warm", warm);
+    }
+
+    private static String summaryLine(String kind, List<Long> totals) {
+        if (totals.isEmpty()) {
+            return "";
+        }
+        Collections.sort(totals);
+        return String.format("  %s starts: %d, median %d ms from JVM start to first frame%n",
+                kind, totals.size(), totals.get(totals.size() / 2));
+    }
+}
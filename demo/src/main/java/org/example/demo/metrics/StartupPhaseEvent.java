@@ -0,0 +1,20 @@
+package org.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("org.example.demo.StartupPhase")
+@Label("Startup Phase")
+@Category({ "Memory Game", "Startup" })
+@StackTrace(false)
+class StartupPhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long durationNanos;
+}
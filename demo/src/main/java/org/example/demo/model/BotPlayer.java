@@ -0,0 +1,18 @@
+package org.example.demo.model;
+
+import org.example.demo.engine.CardDeck;
+import org.example.demo.sim.MonteCarloBot;
+
+// Computer-controlled player; MemoryGame keeps its memory up to date
+public class BotPlayer extends Player {
+    private final MonteCarloBot bot;
+
+    public BotPlayer(String name, MonteCarloBot.Difficulty difficulty) {
+        super(name);
+        this.bot = new MonteCarloBot(difficulty, CardDeck.newSeed());
+    }
+
+    public MonteCarloBot getBot() {
+        return bot;
+    }
+}
@@ -9,9 +9,19 @@ public class Card {
     private final StringProperty value = new SimpleStringProperty();
     private final BooleanProperty flipped = new SimpleBooleanProperty(false);
     private final BooleanProperty matched = new SimpleBooleanProperty(false);
+    private final int face; // pair number for themed images, -1 if unknown
     
     public Card(String value) {
+        this(value, -1);
+    }
+    
+    public Card(String value, int face) {
         this.value.set(value);
+        this.face = face;
+    }
+    
+    public int getFace() {
+        return face;
     }
     
     public String getValue() {
@@ -1,23 +1,67 @@
 package org.example.demo.model;
 
+import org.example.demo.metrics.Metrics;
+import org.example.demo.rating.BulkRater;
+import org.example.demo.rating.PlayerRating;
+import org.example.demo.rating.RatingHistory;
+import org.example.demo.rating.RatingParameters;
+
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
-public class DatabaseService {
+// JDBC backend of PlayerRepository: an H2 database file accessed through SQL
+public class DatabaseService implements PlayerRepository {
     private static final String DB_URL = "jdbc:h2:./memory-game";
     private static final String USER = "sa";
     private static final String PASS = "";
+    private static final long WRITE_BEHIND_CLOSE_SECONDS = 5;
+    static final int STREAM_FETCH_SIZE = 10_000;
+    private static final int RECOMPUTE_BATCH_SIZE = 10_000;
+
+    static final String MERGE_PLAYER_SQL = "MERGE INTO players (name, score) KEY (name) VALUES (?, ?)";
+    static final String[] GENERATED_ID = { "ID" };
+    static final String INSERT_GAME_SQL =
+            "INSERT INTO game_results (finished_at, pairs, tries, duration_ms, player_count) VALUES (?, ?, ?, ?, ?)";
+    static final String INSERT_SEAT_SQL =
+            "INSERT INTO game_players (game_id, seat, name, pairs, winner, bot) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String ENSURE_STATS_SQL = "MERGE INTO player_stats (name) KEY (name) VALUES (?)";
+    // Welford's update in one statement; the right-hand sides all see the old
+    // row, so (games + 1) is the new count and the mean term is the old mean
+    static final String UPDATE_STATS_SQL = "UPDATE player_stats SET " +
+            "games = games + 1, " +
+            "wins = wins + ?, " +
+            "tries_mean = tries_mean + (? - tries_mean) / (games + 1), " +
+            "tries_m2 = tries_m2 + (? - tries_mean) * (? - tries_mean - (? - tries_mean) / (games + 1)), " +
+            "best_time_ms = CASE WHEN ? < COALESCE(best_time_ms, " + Long.MAX_VALUE + ") THEN ? ELSE best_time_ms END " +
+            "WHERE name = ?";
+    static final String MERGE_RATING_SQL = "MERGE INTO player_ratings (name, rating, games) KEY (name) VALUES (?, ?, ?)";
 
+    private final String url;
+    private final RatingParameters ratingParameters = RatingParameters.configured();
     private Connection connection;
+    private PlayerWriteBehind writeBehind;
+    private final LeaderboardCache leaderboard = new LeaderboardCache(TOP_PLAYERS, this::loadLeaderboard);
 
     public DatabaseService() {
-        initDatabase();
+        this(DB_URL);
+    }
+
+    public DatabaseService(String url) {
+        this.url = url;
+        initDatabase(url);
     }
 
-    private void initDatabase() {
+    private void initDatabase(String url) {
+        long start = Metrics.start();
         try {
-            connection = DriverManager.getConnection(DB_URL, USER, PASS);
+            connection = DriverManager.getConnection(url, USER, PASS);
+            Metrics.jdbc("connect", start);
             createTablesIfNotExist();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -31,44 +75,441 @@ public class DatabaseService {
                     "name VARCHAR(255) NOT NULL, " +
                     "score INT DEFAULT 0" +
                     ")");
+            if (!indexExists(stmt, "IDX_PLAYERS_NAME")) {
+                // Older databases may contain several rows per name; keep the best one
+                stmt.execute("DELETE FROM players p WHERE EXISTS (" +
+                        "SELECT 1 FROM players q WHERE q.name = p.name " +
+                        "AND (q.score > p.score OR (q.score = p.score AND q.id < p.id)))");
+                stmt.execute("CREATE UNIQUE INDEX idx_players_name ON players(name)");
+            }
+            // Serves the leaderboard order without sorting the whole table
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_players_score ON players(score DESC, id)");
+
+            // Results history, one row per game and one per seat
+            stmt.execute("CREATE TABLE IF NOT EXISTS game_results (" +
+                    "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "finished_at TIMESTAMP NOT NULL, " +
+                    "pairs INT NOT NULL, " +
+                    "tries INT NOT NULL, " +
+                    "duration_ms BIGINT NOT NULL, " +
+                    "player_count INT NOT NULL" +
+                    ")");
+            stmt.execute("CREATE TABLE IF NOT EXISTS game_players (" +
+                    "game_id BIGINT NOT NULL REFERENCES game_results(id), " +
+                    "seat INT NOT NULL, " +
+                    "name VARCHAR(255) NOT NULL, " +
+                    "pairs INT NOT NULL, " +
+                    "winner BOOLEAN NOT NULL, " +
+                    "bot BOOLEAN NOT NULL, " +
+                    "PRIMARY KEY (game_id, seat)" +
+                    ")");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_game_players_name ON game_players(name, game_id)");
+            // Running aggregates per player, updated with every recorded game
+            stmt.execute("CREATE TABLE IF NOT EXISTS player_stats (" +
+                    "name VARCHAR(255) PRIMARY KEY, " +
+                    "games INT DEFAULT 0 NOT NULL, " +
+                    "wins INT DEFAULT 0 NOT NULL, " +
+                    "tries_mean DOUBLE PRECISION DEFAULT 0 NOT NULL, " +
+                    "tries_m2 DOUBLE PRECISION DEFAULT 0 NOT NULL, " +
+                    "best_time_ms BIGINT" +
+                    ")");
+            // Current rating per player, updated with every multiplayer game
+            stmt.execute("CREATE TABLE IF NOT EXISTS player_ratings (" +
+                    "name VARCHAR(255) PRIMARY KEY, " +
+                    "rating DOUBLE PRECISION NOT NULL, " +
+                    "games INT NOT NULL" +
+                    ")");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_player_ratings_rating ON player_ratings(rating DESC)");
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    private boolean indexExists(Statement stmt, String indexName) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES " +
+                "WHERE INDEX_NAME = '" + indexName + "'")) {
+            return rs.next() && rs.getInt(1) > 0;
+        }
+    }
+
+    // Players are identified by name: the upsert inserts unknown names and
+    // updates the score of known ones, so the same name never gets two rows.
+    @Override
     public void savePlayer(Player player) {
-        String sql;
-        if (player.getId() == 0) {
-            // New player
-            sql = "INSERT INTO players (name, score) VALUES (?, ?)";
-            try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-                stmt.setString(1, player.getName());
-                stmt.setInt(2, player.getScore());
-                stmt.executeUpdate();
-
-                ResultSet rs = stmt.getGeneratedKeys();
+        long start = Metrics.start();
+        try (PreparedStatement stmt = connection.prepareStatement(MERGE_PLAYER_SQL, GENERATED_ID)) {
+            stmt.setString(1, player.getName());
+            stmt.setInt(2, player.getScore());
+            stmt.executeUpdate();
+
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
                     player.setId(rs.getInt(1));
                 }
+            }
+            leaderboard.update(player.getId(), player.getName(), player.getScore());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        Metrics.jdbc("savePlayer", start);
+    }
+
+    // Queues the player's current score for the background writer and returns
+    // immediately. Repeated calls for the same player before the next flush
+    // are collapsed into one write.
+    @Override
+    public void savePlayerAsync(Player player) {
+        if (startWriteBehind()) {
+            writeBehind.enqueue(player);
+        } else {
+            savePlayer(player);
+        }
+    }
+
+    // The game is written by the background writer, together with its seats
+    // and the stats updates, as one batch in one transaction
+    @Override
+    public void recordGame(GameResult result) {
+        if (startWriteBehind()) {
+            writeBehind.enqueue(result);
+            return;
+        }
+        try {
+            connection.setAutoCommit(false);
+            insertGames(connection, List.of(result), ratingParameters);
+            connection.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                rollbackError.printStackTrace();
+            }
+        } finally {
+            try {
+                connection.setAutoCommit(true);
             } catch (SQLException e) {
                 e.printStackTrace();
             }
-        } else {
-            // Update existing player
-            sql = "UPDATE players SET name = ?, score = ? WHERE id = ?";
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, player.getName());
-                stmt.setInt(2, player.getScore());
-                stmt.setInt(3, player.getId());
-                stmt.executeUpdate();
+        }
+    }
+
+    // Single-row lookup in the summary table, the history is never scanned
+    @Override
+    public PlayerStats getStats(String name) {
+        long start = Metrics.start();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT games, wins, tries_mean, tries_m2, best_time_ms FROM player_stats WHERE name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new PlayerStats(name, rs.getInt(1), rs.getInt(2), rs.getDouble(3), rs.getDouble(4),
+                            rs.getLong(5));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            Metrics.jdbc("getStats", start);
+        }
+        return null;
+    }
+
+    @Override
+    public PlayerRating getRating(String name) {
+        long start = Metrics.start();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT rating, games FROM player_ratings WHERE name = ?")) {
+            stmt.setString(1, name);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new PlayerRating(name, rs.getDouble(1), rs.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            Metrics.jdbc("getRating", start);
+        }
+        return null;
+    }
+
+    @Override
+    public List<PlayerRating> loadRatings(int limit) {
+        List<PlayerRating> ratings = new ArrayList<>();
+        long start = Metrics.start();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT name, rating, games FROM player_ratings ORDER BY rating DESC LIMIT ?")) {
+            stmt.setInt(1, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ratings.add(new PlayerRating(rs.getString(1), rs.getDouble(2), rs.getInt(3)));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        Metrics.jdbc("loadRatings", start);
+        return ratings;
+    }
+
+    // Runs on its own connection so the game's connection stays usable.
+    // The seats are streamed in game order (the primary key order, no sort)
+    // into flat arrays, BulkRater replays them, and the new ratings are
+    // merged back in batches with a commit every RECOMPUTE_BATCH_SIZE rows.
+    // Readers see old and new ratings mixed until the last commit, but never
+    // a missing row: every rated player already has one.
+    @Override
+    public int recomputeRatings(RatingParameters parameters) {
+        long start = Metrics.start();
+        try (Connection bulk = openBulkConnection()) {
+            RatingHistory history = new RatingHistory();
+            try (Statement stmt = bulk.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                 ResultSet rs = streamQuery(stmt, "SELECT game_id, name, pairs FROM game_players ORDER BY game_id, seat")) {
+                while (rs.next()) {
+                    history.addSeat(rs.getLong(1), rs.getString(2), rs.getInt(3));
+                }
+            }
+            Metrics.jdbc("readHistory", start);
+
+            PlayerRating[] ratings = BulkRater.recompute(history, parameters);
+
+            long writeStart = Metrics.start();
+            bulk.setAutoCommit(false);
+            try (PreparedStatement merge = bulk.prepareStatement(MERGE_RATING_SQL)) {
+                int pending = 0;
+                for (PlayerRating rating : ratings) {
+                    if (rating.games() == 0) {
+                        continue; // only solo games
+                    }
+                    merge.setString(1, rating.name());
+                    merge.setDouble(2, rating.rating());
+                    merge.setInt(3, rating.games());
+                    merge.addBatch();
+                    if (++pending == RECOMPUTE_BATCH_SIZE) {
+                        merge.executeBatch();
+                        bulk.commit();
+                        pending = 0;
+                    }
+                }
+                merge.executeBatch();
+                bulk.commit();
+            }
+            Metrics.jdbc("writeRatings", writeStart);
+            return history.gameCount();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // Rebuilds every player's stats from the history in one statement, after
+    // games were added without going through recordGame (PlayerArchive)
+    public void rebuildStats() {
+        long start = Metrics.start();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("MERGE INTO player_stats (name, games, wins, tries_mean, tries_m2, best_time_ms) " +
+                    "KEY (name) " +
+                    "SELECT name, COUNT(*), SUM(CASE WHEN winner THEN 1 ELSE 0 END), AVG(x), VAR_POP(x) * COUNT(*), " +
+                    "MIN(CASE WHEN winner THEN duration_ms END) " +
+                    "FROM (SELECT p.name, p.winner, g.duration_ms, " +
+                    "CASE WHEN g.pairs = 0 THEN 0 ELSE CAST(g.tries AS DOUBLE PRECISION) / g.pairs END AS x " +
+                    "FROM game_players p JOIN game_results g ON g.id = p.game_id WHERE NOT p.bot) " +
+                    "GROUP BY name");
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        Metrics.jdbc("rebuildStats", start);
+    }
+
+    // A connection of its own for long scans and bulk writes, so the game's
+    // connection stays usable meanwhile
+    Connection openBulkConnection() throws SQLException {
+        return DriverManager.getConnection(url, USER, PASS);
+    }
+
+    // Runs a query whose rows are handed out as they are read, STREAM_FETCH_SIZE
+    // at a time; H2 would otherwise build the whole result first. The
+    // setting stays on for the session, so use it on a bulk connection.
+    static ResultSet streamQuery(Statement stmt, String sql) throws SQLException {
+        stmt.execute("SET LAZY_QUERY_EXECUTION TRUE");
+        stmt.setFetchSize(STREAM_FETCH_SIZE);
+        return stmt.executeQuery(sql);
+    }
+
+    // Inserts the games and their seats and updates the stats of the human
+    // players and the ratings, each as one batch; the caller commits
+    static void insertGames(Connection connection, List<GameResult> games, RatingParameters parameters)
+            throws SQLException {
+        long[] ids = new long[games.size()];
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_GAME_SQL, GENERATED_ID)) {
+            for (GameResult game : games) {
+                insert.setTimestamp(1, new Timestamp(game.finishedAtMillis()));
+                insert.setInt(2, game.pairs());
+                insert.setInt(3, game.tries());
+                insert.setLong(4, game.durationMillis());
+                insert.setInt(5, game.seats().size());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            try (ResultSet rs = insert.getGeneratedKeys()) {
+                for (int i = 0; i < ids.length && rs.next(); i++) {
+                    ids[i] = rs.getLong(1);
+                }
+            }
+        }
+
+        try (PreparedStatement seats = connection.prepareStatement(INSERT_SEAT_SQL);
+             PreparedStatement ensure = connection.prepareStatement(ENSURE_STATS_SQL);
+             PreparedStatement update = connection.prepareStatement(UPDATE_STATS_SQL)) {
+            for (int i = 0; i < games.size(); i++) {
+                GameResult game = games.get(i);
+                double triesPerPair = game.triesPerPair();
+                for (int seat = 0; seat < game.seats().size(); seat++) {
+                    GameResult.Seat player = game.seats().get(seat);
+                    seats.setLong(1, ids[i]);
+                    seats.setInt(2, seat);
+                    seats.setString(3, player.name());
+                    seats.setInt(4, player.pairs());
+                    seats.setBoolean(5, player.winner());
+                    seats.setBoolean(6, player.bot());
+                    seats.addBatch();
+                    if (player.bot()) {
+                        continue;
+                    }
+
+                    ensure.setString(1, player.name());
+                    ensure.addBatch();
+                    update.setInt(1, player.winner() ? 1 : 0);
+                    update.setDouble(2, triesPerPair);
+                    update.setDouble(3, triesPerPair);
+                    update.setDouble(4, triesPerPair);
+                    update.setDouble(5, triesPerPair);
+                    if (player.winner()) {
+                        update.setLong(6, game.durationMillis());
+                    } else {
+                        update.setNull(6, Types.BIGINT);
+                    }
+                    update.setLong(7, game.durationMillis());
+                    update.setString(8, player.name());
+                    update.addBatch();
+                }
+            }
+            seats.executeBatch();
+            ensure.executeBatch();
+            update.executeBatch();
+        }
+        updateRatings(connection, games, parameters);
+    }
+
+    // One query reads the ratings of everybody in the batch, the games are
+    // applied in order in memory and the results merged back as one batch
+    private static void updateRatings(Connection connection, List<GameResult> games, RatingParameters parameters)
+            throws SQLException {
+        Set<String> names = new LinkedHashSet<>();
+        for (GameResult game : games) {
+            if (game.isRated()) {
+                game.seats().forEach(seat -> names.add(seat.name()));
+            }
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+        Map<String, PlayerRating> ratings = new HashMap<>();
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT name, rating, games FROM player_ratings WHERE name = ANY(?)")) {
+            select.setArray(1, connection.createArrayOf("VARCHAR", names.toArray()));
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    ratings.put(rs.getString(1), new PlayerRating(rs.getString(1), rs.getDouble(2), rs.getInt(3)));
+                }
+            }
+        }
+        for (GameResult game : games) {
+            if (game.isRated()) {
+                for (PlayerRating rating : game.rate(ratings::get, parameters)) {
+                    ratings.put(rating.name(), rating);
+                }
+            }
+        }
+        try (PreparedStatement merge = connection.prepareStatement(MERGE_RATING_SQL)) {
+            for (String name : names) {
+                PlayerRating rating = ratings.get(name);
+                merge.setString(1, name);
+                merge.setDouble(2, rating.rating());
+                merge.setInt(3, rating.games());
+                merge.addBatch();
+            }
+            merge.executeBatch();
+        }
+    }
+
+    private boolean startWriteBehind() {
+        if (writeBehind == null) {
+            try {
+                writeBehind = new PlayerWriteBehind(url, USER, PASS, leaderboard, ratingParameters);
             } catch (SQLException e) {
                 e.printStackTrace();
+                return false;
             }
         }
+        return true;
+    }
+
+    // Best players from the in-memory cache; only the first call after startup
+    // (or after the cache was invalidated) reads from the database.
+    @Override
+    public List<LeaderboardEntry> getTopPlayers() {
+        return leaderboard.top();
     }
 
+    // First page of the leaderboard
+    @Override
+    public List<LeaderboardEntry> loadLeaderboard(int limit) {
+        return queryLeaderboard("SELECT id, name, score FROM players ORDER BY score DESC, id LIMIT ?",
+                stmt -> stmt.setInt(1, limit));
+    }
+
+    // Next page after the last row of the previous page (keyset pagination):
+    // the index seek costs the same no matter how deep the page is.
+    @Override
+    public List<LeaderboardEntry> loadLeaderboard(int afterScore, int afterId, int limit) {
+        return queryLeaderboard("SELECT id, name, score FROM players " +
+                        "WHERE score < ? OR (score = ? AND id > ?) ORDER BY score DESC, id LIMIT ?",
+                stmt -> {
+                    stmt.setInt(1, afterScore);
+                    stmt.setInt(2, afterScore);
+                    stmt.setInt(3, afterId);
+                    stmt.setInt(4, limit);
+                });
+    }
+
+    private interface ParameterBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    private List<LeaderboardEntry> queryLeaderboard(String sql, ParameterBinder binder) {
+        List<LeaderboardEntry> entries = new ArrayList<>();
+        long start = Metrics.start();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            binder.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new LeaderboardEntry(rs.getInt(1), rs.getString(2), rs.getInt(3)));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        Metrics.jdbc("queryLeaderboard", start);
+        return entries;
+    }
+
+    // Reads the whole table; prefer the leaderboard methods for large tables
+    @Override
     public List<Player> loadPlayers() {
         List<Player> players = new ArrayList<>();
+        long start = Metrics.start();
         try (Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery("SELECT id, name, score FROM players ORDER BY score DESC")) {
 
@@ -81,10 +522,16 @@ public class DatabaseService {
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        Metrics.jdbc("loadPlayers", start);
         return players;
     }
 
+    @Override
     public void close() {
+        if (writeBehind != null) {
+            writeBehind.close(WRITE_BEHIND_CLOSE_SECONDS, TimeUnit.SECONDS);
+            writeBehind = null;
+        }
         try {
             if (connection != null && !connection.isClosed()) {
                 connection.close();
@@ -0,0 +1,128 @@
+package org.example.demo.model;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Single-writer front end for a MemoryGame. Any thread may submit commands;
+// they are queued and run in order on the owner (the FX thread via
+// Platform::runLater, or a dedicated thread for headless games), which is
+// the only thread that touches the game. Commands that arrive while a batch
+// is pending join it, so a burst from bots, timers or network peers costs
+// one hand-off to the owner, i.e. at most one pulse on the FX thread.
+//
+// As an Executor the actor also runs plain actions in the same order, so
+// GameScheduler and GameClient can dispatch through it.
+public class GameActor implements Executor {
+
+    public enum FlipResult {
+        REJECTED, // not allowed right now (matched, open or waiting for flip back)
+        FIRST,    // first card of the turn
+        MATCH,
+        MISMATCH  // the cards stay open until flipBack()
+    }
+
+    private final MemoryGame game;
+    private final Executor owner;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable drain = this::drain;
+
+    public GameActor(MemoryGame game, Executor owner) {
+        this.game = game;
+        this.owner = owner;
+    }
+
+    // Actor with its own owner thread, for games without a UI
+    public static GameActor withOwnerThread(MemoryGame game, String threadName) {
+        ExecutorService thread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread t = new Thread(runnable, threadName);
+            t.setDaemon(true);
+            return t;
+        });
+        return new GameActor(game, thread);
+    }
+
+    public CompletableFuture<FlipResult> flip(int index) {
+        return submit(g -> {
+            int first = g.getEngine().getFirstCardIndex();
+            int triesBefore = g.getEngine().getTries();
+            g.flipCard(index);
+            if (g.getEngine().getTries() == triesBefore) {
+                return g.getEngine().getFirstCardIndex() == index && first < 0 ? FlipResult.FIRST : FlipResult.REJECTED;
+            }
+            return g.getEngine().isMatched(index) ? FlipResult.MATCH : FlipResult.MISMATCH;
+        });
+    }
+
+    public CompletableFuture<Void> flipBack() {
+        return submit(g -> {
+            g.flipCardsBack();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> addPlayer(Player player) {
+        return submit(g -> {
+            g.addPlayer(player);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> newGame(int pairs) {
+        return submit(g -> {
+            g.initializeCards(pairs);
+            return null;
+        });
+    }
+
+    // Runs a command or query against the game on the owner thread
+    public <T> CompletableFuture<T> submit(Function<MemoryGame, T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        enqueue(() -> {
+            try {
+                result.complete(command.apply(game));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public void execute(Runnable action) {
+        enqueue(action);
+    }
+
+    private void enqueue(Runnable command) {
+        mailbox.add(command);
+        if (scheduled.compareAndSet(false, true)) {
+            owner.execute(drain);
+        }
+    }
+
+    // Runs everything queued so far as one batch. A failing command is
+    // reported and skipped; letting it escape would leave the actor marked
+    // as scheduled and stall every later command.
+    private void drain() {
+        Runnable command;
+        while ((command = mailbox.poll()) != null) {
+            try {
+                command.run();
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+        }
+        scheduled.set(false);
+        // A producer may have added a command after the last poll; it gets
+        // its own batch so the owner can do other work in between
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            owner.execute(drain);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.demo.model;
+
+import org.example.demo.rating.EloRating;
+import org.example.demo.rating.PlayerRating;
+import org.example.demo.rating.RatingParameters;
+
+import java.util.List;
+import java.util.function.Function;
+
+// One finished game for the results history. Seats are in turn order; every
+// seat with the most pairs is a winner, so a solo game is always won.
+public record GameResult(long finishedAtMillis, int pairs, int tries, long durationMillis, List<Seat> seats) {
+
+    public record Seat(String name, int pairs, boolean winner, boolean bot) {
+    }
+
+    // Tries per pair on the board, the skill measure tracked in PlayerStats
+    public double triesPerPair() {
+        return pairs == 0 ? 0 : (double) tries / pairs;
+    }
+
+    // Games against nobody do not change any rating
+    public boolean isRated() {
+        return seats.size() >= 2;
+    }
+
+    // New ratings of the seats, in seat order, given a lookup of the ratings
+    // before this game (null for players without one). Only for rated games.
+    public PlayerRating[] rate(Function<String, PlayerRating> before, RatingParameters parameters) {
+        PlayerRating[] ratings = new PlayerRating[seats.size()];
+        double[] values = new double[ratings.length];
+        int[] seatPairs = new int[ratings.length];
+        for (int i = 0; i < ratings.length; i++) {
+            Seat seat = seats.get(i);
+            PlayerRating current = before.apply(seat.name());
+            ratings[i] = current != null ? current : PlayerRating.initial(seat.name(), parameters);
+            values[i] = ratings[i].rating();
+            seatPairs[i] = seat.pairs();
+        }
+        double[] changes = EloRating.changes(values, seatPairs, parameters);
+        for (int i = 0; i < ratings.length; i++) {
+            ratings[i] = ratings[i].plus(changes[i]);
+        }
+        return ratings;
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.demo.model;
+
+import org.example.demo.engine.EngineState;
+
+// Everything needed to continue a game: the deal (seed and pairs), the
+// engine state and the players with their scores (all games) and pairs
+// found in this game. botLevels holds the difficulty ordinal for computer
+// players and -1 for people.
+public record GameSnapshot(long seed, int pairs, EngineState state,
+                           String[] playerNames, int[] playerIds, int[] playerScores, int[] playerGamePairs,
+                           byte[] botLevels) {
+}
@@ -0,0 +1,142 @@
+package org.example.demo.model;
+
+import org.example.demo.rating.BulkRater;
+import org.example.demo.rating.PlayerRating;
+import org.example.demo.rating.RatingHistory;
+import org.example.demo.rating.RatingParameters;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Players kept in a map by name plus a set sorted in leaderboard order.
+// Nothing is persisted; used by tests and simulations, and as the baseline
+// the stored backends are measured against.
+public class InMemoryPlayerRepository implements PlayerRepository {
+    static final Comparator<LeaderboardEntry> LEADERBOARD_ORDER =
+            Comparator.comparingInt(LeaderboardEntry::score).reversed().thenComparingInt(LeaderboardEntry::id);
+
+    private final Map<String, LeaderboardEntry> byName = new HashMap<>();
+    private final NavigableSet<LeaderboardEntry> ranking = new TreeSet<>(LEADERBOARD_ORDER);
+    private final List<GameResult> history = new ArrayList<>();
+    private final Map<String, PlayerStats> stats = new HashMap<>();
+    private final Map<String, PlayerRating> ratings = new HashMap<>();
+    private final RatingParameters ratingParameters = RatingParameters.configured();
+    private int lastId;
+
+    @Override
+    public synchronized void savePlayer(Player player) {
+        String name = player.getName();
+        LeaderboardEntry old = byName.get(name);
+        LeaderboardEntry entry = new LeaderboardEntry(old != null ? old.id() : ++lastId, name, player.getScore());
+        if (old != null) {
+            ranking.remove(old);
+        }
+        byName.put(name, entry);
+        ranking.add(entry);
+        player.setId(entry.id());
+    }
+
+    @Override
+    public void savePlayerAsync(Player player) {
+        savePlayer(player);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getTopPlayers() {
+        return loadLeaderboard(TOP_PLAYERS);
+    }
+
+    @Override
+    public synchronized List<LeaderboardEntry> loadLeaderboard(int limit) {
+        return page(ranking, limit);
+    }
+
+    @Override
+    public synchronized List<LeaderboardEntry> loadLeaderboard(int afterScore, int afterId, int limit) {
+        return page(ranking.tailSet(new LeaderboardEntry(afterId, null, afterScore), false), limit);
+    }
+
+    private static List<LeaderboardEntry> page(NavigableSet<LeaderboardEntry> entries, int limit) {
+        List<LeaderboardEntry> page = new ArrayList<>(Math.min(limit, entries.size()));
+        for (LeaderboardEntry entry : entries) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+
+    @Override
+    public synchronized List<Player> loadPlayers() {
+        List<Player> players = new ArrayList<>(ranking.size());
+        for (LeaderboardEntry entry : ranking) {
+            players.add(entry.toPlayer());
+        }
+        return players;
+    }
+
+    @Override
+    public synchronized void recordGame(GameResult result) {
+        history.add(result);
+        for (GameResult.Seat seat : result.seats()) {
+            if (!seat.bot()) {
+                PlayerStats current = stats.getOrDefault(seat.name(), PlayerStats.empty(seat.name()));
+                stats.put(seat.name(), current.add(result.triesPerPair(), seat.winner(), result.durationMillis()));
+            }
+        }
+        if (result.isRated()) {
+            for (PlayerRating rating : result.rate(ratings::get, ratingParameters)) {
+                ratings.put(rating.name(), rating);
+            }
+        }
+    }
+
+    @Override
+    public synchronized PlayerStats getStats(String name) {
+        return stats.get(name);
+    }
+
+    @Override
+    public synchronized PlayerRating getRating(String name) {
+        return ratings.get(name);
+    }
+
+    @Override
+    public synchronized List<PlayerRating> loadRatings(int limit) {
+        return topRatings(ratings.values(), limit);
+    }
+
+    static List<PlayerRating> topRatings(Iterable<PlayerRating> ratings, int limit) {
+        List<PlayerRating> sorted = new ArrayList<>();
+        ratings.forEach(sorted::add);
+        sorted.sort(Comparator.comparingDouble(PlayerRating::rating).reversed());
+        return new ArrayList<>(sorted.subList(0, Math.min(limit, sorted.size())));
+    }
+
+    @Override
+    public synchronized int recomputeRatings(RatingParameters parameters) {
+        RatingHistory replay = new RatingHistory();
+        for (int game = 0; game < history.size(); game++) {
+            for (GameResult.Seat seat : history.get(game).seats()) {
+                replay.addSeat(game, seat.name(), seat.pairs());
+            }
+        }
+        ratings.clear();
+        for (PlayerRating rating : BulkRater.recompute(replay, parameters)) {
+            if (rating.games() > 0) {
+                ratings.put(rating.name(), rating);
+            }
+        }
+        return replay.gameCount();
+    }
+
+    @Override
+    public void close() {
+    }
+}
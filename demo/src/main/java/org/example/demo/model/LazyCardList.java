@@ -0,0 +1,123 @@
+package org.example.demo.model;
+
+import javafx.collections.ObservableListBase;
+import org.example.demo.engine.GameEngine;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+// Card list for the compact board mode. Card objects are only created for the
+// indices somebody actually asks for (usually the visible ListView cells) and
+// are kept in a small LRU cache; everything else stays in the engine's Board.
+//
+// A card pushed out of the cache may still be bound to a cell. It is then
+// only weakly held: as long as the cell keeps it, peek() still finds it (so
+// PropertySync keeps it up to date) and get() hands out the same object.
+class LazyCardList extends ObservableListBase<Card> {
+    private static final int CACHE_SIZE = 512;
+    private static final Card HIDDEN = new Card("?");
+
+    private final GameEngine engine;
+    private final IntFunction<String> labels;
+    private final Map<Integer, Card> materialized = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Card> eldest) {
+            if (size() <= CACHE_SIZE) {
+                return false;
+            }
+            evicted.put(eldest.getKey(), new EvictedCard(eldest.getKey(), eldest.getValue(), collected));
+            return true;
+        }
+    };
+    private final Map<Integer, EvictedCard> evicted = new HashMap<>();
+    private final ReferenceQueue<Card> collected = new ReferenceQueue<>();
+    private int size;
+
+    private static final class EvictedCard extends WeakReference<Card> {
+        final int index;
+
+        EvictedCard(int index, Card card, ReferenceQueue<Card> queue) {
+            super(card, queue);
+            this.index = index;
+        }
+    }
+
+    LazyCardList(GameEngine engine, IntFunction<String> labels) {
+        this.engine = engine;
+        this.labels = labels;
+    }
+
+    @Override
+    public Card get(int index) {
+        Objects.checkIndex(index, size);
+        Card card = materialized.get(index);
+        if (card == null) {
+            card = evictedCard(index);
+            if (card != null) {
+                evicted.remove(index);
+                materialized.put(index, card);
+                return card;
+            }
+            int value = engine.getValue(index);
+            card = new Card(labels.apply(value), value);
+            card.setFlipped(engine.isFlipped(index));
+            card.setMatched(engine.isMatched(index));
+            materialized.put(index, card);
+        }
+        return card;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Returns the card for the index if it has been materialized and is
+    // still in use, otherwise null
+    Card peek(int index) {
+        Card card = materialized.get(index);
+        return card != null ? card : evictedCard(index);
+    }
+
+    int materializedCount() {
+        purgeCollected();
+        return materialized.size() + evicted.size();
+    }
+
+    private Card evictedCard(int index) {
+        purgeCollected();
+        EvictedCard ref = evicted.get(index);
+        return ref != null ? ref.get() : null;
+    }
+
+    private void purgeCollected() {
+        EvictedCard ref;
+        while ((ref = (EvictedCard) collected.poll()) != null) {
+            evicted.remove(ref.index, ref);
+        }
+    }
+
+    // Replaces the whole list after the engine has been re-initialized
+    void reset(int newSize) {
+        int oldSize = size;
+        materialized.clear();
+        evicted.clear();
+        size = newSize;
+
+        beginChange();
+        if (oldSize > 0) {
+            // The old cards are gone, so report them with a shared placeholder
+            nextRemove(0, Collections.nCopies(oldSize, HIDDEN));
+        }
+        if (newSize > 0) {
+            nextAdd(0, newSize);
+        }
+        endChange();
+    }
+}
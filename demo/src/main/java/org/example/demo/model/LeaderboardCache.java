@@ -0,0 +1,86 @@
+package org.example.demo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Keeps the best N players in memory, ordered like the leaderboard query
+// (score descending, then id). Saves update it incrementally; it only goes
+// back to the database when a cached player drops out of the top N and the
+// next candidate is unknown.
+class LeaderboardCache {
+    private final int capacity;
+    private final IntFunction<List<LeaderboardEntry>> loader;
+    private List<LeaderboardEntry> entries;
+    private boolean complete; // true if the table has no rows beyond the cached ones
+
+    LeaderboardCache(int capacity, IntFunction<List<LeaderboardEntry>> loader) {
+        this.capacity = capacity;
+        this.loader = loader;
+    }
+
+    synchronized List<LeaderboardEntry> top() {
+        if (entries == null) {
+            // Ask for one extra row to find out whether the table is larger than the cache
+            List<LeaderboardEntry> loaded = new ArrayList<>(loader.apply(capacity + 1));
+            complete = loaded.size() <= capacity;
+            if (!complete) {
+                loaded.remove(capacity);
+            }
+            entries = loaded;
+        }
+        return List.copyOf(entries);
+    }
+
+    synchronized void update(int id, String name, int score) {
+        if (entries == null) {
+            return;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).id() == id) {
+                entries.remove(i);
+                break;
+            }
+        }
+
+        LeaderboardEntry entry = new LeaderboardEntry(id, name, score);
+        int position = insertionPoint(entry);
+        if (position == entries.size()) {
+            if (entries.size() == capacity) {
+                // Not in the top N; the table now has rows beyond the cache
+                complete = false;
+            } else if (complete) {
+                entries.add(entry);
+            } else {
+                // The player fell behind the cached rows, an uncached row may rank higher
+                entries = null;
+            }
+            return;
+        }
+
+        entries.add(position, entry);
+        if (entries.size() > capacity) {
+            entries.remove(capacity);
+            complete = false;
+        }
+    }
+
+    synchronized void invalidate() {
+        entries = null;
+    }
+
+    private int insertionPoint(LeaderboardEntry entry) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            LeaderboardEntry other = entries.get(mid);
+            if (other.score() > entry.score() || (other.score() == entry.score() && other.id() < entry.id())) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.demo.model;
+
+// Immutable leaderboard row; safe to hand between the FX and database threads
+public record LeaderboardEntry(int id, String name, int score) {
+
+    public Player toPlayer() {
+        return new Player(id, name, score);
+    }
+}
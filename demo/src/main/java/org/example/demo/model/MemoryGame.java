@@ -2,152 +2,337 @@ package org.example.demo.model;
 
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import org.example.demo.engine.CardDeck;
+import org.example.demo.engine.GameEngine;
+import org.example.demo.engine.GameListener;
+import org.example.demo.engine.TurnHistory;
+import org.example.demo.journal.GameJournal;
+import org.example.demo.metrics.Metrics;
+import org.example.demo.sim.MonteCarloBot;
 
 import java.util.*;
 
+// Observable JavaFX view of a GameEngine. The rules live in the engine;
+// this class only mirrors engine changes into properties for the UI.
 public class MemoryGame {
-    private final ObservableList<Card> cards = FXCollections.observableArrayList();
+    // Rough heap cost of one Card in the object layout: the Card itself, two
+    // SimpleBooleanProperty, one SimpleStringProperty, the value String with its
+    // byte[] and the ObservableList slot.
+    private static final int CARD_OBJECT_BYTES = 24 + 2 * 32 + 40 + 24 + 24 + 4;
+    
+    private final GameEngine engine = new GameEngine();
+    private final TurnHistory history = new TurnHistory(engine);
+    private final ObservableList<Card> cards;
+    private final LazyCardList lazyCards; // only set in compact mode
     private final ObservableList<Player> players = FXCollections.observableArrayList();
+    private final Map<String, Player> playersByName = new HashMap<>();
     private final IntegerProperty currentPlayerIndex = new SimpleIntegerProperty(0);
     private final IntegerProperty tries = new SimpleIntegerProperty(0);
     private final IntegerProperty matchedPairs = new SimpleIntegerProperty(0);
     private final BooleanProperty gameOver = new SimpleBooleanProperty(false);
+    private final IntegerProperty turn = new SimpleIntegerProperty(0);
+    private final IntegerProperty lastTurn = new SimpleIntegerProperty(0);
     
-    private Card firstCard = null;
-    private int firstCardIndex = -1;
-    private Card secondCard = null;
-    private int secondCardIndex = -1;
-    private boolean waitingForFlipBack = false;
+    private long seed;
+    private GameJournal journal;
+    // Journal offset at the end of each turn, the target of REWIND events
+    private long[] turnJournalPositions = new long[64];
+    // Set once a turn was undone; such a game is practice and not recorded
+    private boolean rewound;
+    // Set once the game is over; a finished game is recorded (or discarded
+    // as practice) and its turns can no longer be taken back
+    private boolean finished;
     
     public MemoryGame() {
+        this(false);
+    }
+    
+    // In compact mode the cards are kept only in the engine's Board and Card
+    // objects are created on demand for the cells that are actually shown.
+    public MemoryGame(boolean compactBoard) {
+        if (compactBoard) {
+            lazyCards = new LazyCardList(engine, CardDeck::label);
+            cards = lazyCards;
+        } else {
+            lazyCards = null;
+            cards = FXCollections.observableArrayList();
+        }
+        engine.addListener(new PropertySync());
+        engine.addListener(new BotObserver());
+        players.addListener((ListChangeListener<Player>) change -> {
+            while (change.next()) {
+                for (Player removed : change.getRemoved()) {
+                    playersByName.remove(removed.getName(), removed);
+                }
+                for (Player added : change.getAddedSubList()) {
+                    playersByName.putIfAbsent(added.getName(), added);
+                    if (added instanceof BotPlayer bot) {
+                        // Joins with an empty memory of the current board
+                        bot.getBot().reset(engine.getCardCount());
+                    }
+                }
+            }
+            engine.setPlayerCount(players.size());
+            if (journal != null) {
+                journal.players(players.size());
+            }
+        });
+        
         // Initialize with default values
         players.add(new Player("Player 1"));
         initializeCards(8); // 8 pairs = 16 cards
     }
     
     public void initializeCards(int pairs) {
-        cards.clear();
+        initializeCards(pairs, CardDeck.newSeed());
+    }
+    
+    // Deals the same board again for the same (pairs, seed)
+    public void initializeCards(int pairs, long seed) {
+        initializeCards(pairs, seed, engine.getCurrentPlayerIndex());
+    }
+    
+    // Deals a board on which the given player moves first
+    public void initializeCards(int pairs, long seed, int currentPlayer) {
+        this.seed = seed;
+        engine.setCurrentPlayerIndex(currentPlayer);
+        for (Player player : players) {
+            player.setScore(getCountedScore(player));
+            player.setGamePairs(0);
+        }
+        int[] cardValues = CardDeck.deal(pairs, seed);
+        if (journal != null) {
+            journal.init(seed, pairs, players.size(), engine.getCurrentPlayerIndex());
+        }
         
-        List<String> cardValues = generateCardValues(pairs);
+        rewound = false;
+        finished = false;
         
-        for (String value : cardValues) {
-            cards.add(new Card(value));
+        if (lazyCards != null) {
+            engine.initialize(cardValues);
+            lazyCards.reset(cardValues.length);
+        } else {
+            List<Card> newCards = new ArrayList<>(cardValues.length);
+            for (int value : cardValues) {
+                newCards.add(new Card(CardDeck.label(value), value));
+            }
+            cards.setAll(newCards);
+            
+            engine.initialize(cardValues);
         }
-        
-        // Reset game state
-        matchedPairs.set(0);
-        tries.set(0);
-        gameOver.set(false);
-        firstCard = null;
-        firstCardIndex = -1;
-        secondCard = null;
-        secondCardIndex = -1;
-        waitingForFlipBack = false;
-    }
-    
-    private List<String> generateCardValues(int pairs) {
-        // Simple implementation: using letters as card values
-        List<String> values = new ArrayList<>();
-        for (int i = 0; i < pairs; i++) {
-            char c = (char) ('A' + i);
-            values.add(Character.toString(c));
-            values.add(Character.toString(c));
+        recordTurnPosition();
+    }
+    
+    // Records every following move; the current board and its position are
+    // recorded as a new game
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+        if (journal != null) {
+            journal.init(seed, engine.getCardCount() / 2, players.size(), engine.getCurrentPlayerIndex());
+            journal.state(engine.saveState());
+            // The journal only knows the board from here on
+            history.restart(history.getCurrent().playerPairs());
+            syncTurns();
+            recordTurnPosition();
         }
-        
-        // Shuffle the cards
-        Collections.shuffle(values);
-        return values;
+    }
+    
+    // Captures the running game. Only the flag bitsets are copied, so this is
+    // cheap enough to call after every turn.
+    public GameSnapshot snapshot() {
+        int count = players.size();
+        String[] names = new String[count];
+        int[] ids = new int[count];
+        int[] scores = new int[count];
+        int[] gamePairs = new int[count];
+        byte[] botLevels = new byte[count];
+        for (int i = 0; i < count; i++) {
+            Player player = players.get(i);
+            names[i] = player.getName();
+            ids[i] = player.getId();
+            scores[i] = player.getScore();
+            gamePairs[i] = player.getGamePairs();
+            botLevels[i] = player instanceof BotPlayer bot ? (byte) bot.getBot().getDifficulty().ordinal() : -1;
+        }
+        return new GameSnapshot(seed, engine.getCardCount() / 2, engine.saveState(), names, ids, scores, gamePairs, botLevels);
+    }
+    
+    // Continues a game from a snapshot, including its players and scores
+    public void restore(GameSnapshot snapshot) {
+        List<Player> restored = new ArrayList<>(snapshot.playerNames().length);
+        for (int i = 0; i < snapshot.playerNames().length; i++) {
+            String name = snapshot.playerNames()[i];
+            byte level = snapshot.botLevels()[i];
+            Player player = level >= 0
+                ? new BotPlayer(name, MonteCarloBot.Difficulty.values()[level])
+                : new Player(name);
+            player.setId(snapshot.playerIds()[i]);
+            player.setScore(snapshot.playerScores()[i]);
+            restored.add(player);
+        }
+        players.setAll(restored);
+        initializeCards(snapshot.pairs(), snapshot.seed());
+        for (int i = 0; i < restored.size(); i++) {
+            restored.get(i).setGamePairs(snapshot.playerGamePairs()[i]);
+        }
+        engine.restoreState(snapshot.state());
+        if (journal != null) {
+            journal.state(snapshot.state());
+        }
+        // Undo starts at the restored position
+        history.restart(snapshot.playerGamePairs());
+        syncTurns();
+        recordTurnPosition();
+    }
+    
+    // Marks the end of a turn for undo; call when no cards are open
+    public void endTurn() {
+        if (history.checkpoint()) {
+            syncTurns();
+            recordTurnPosition();
+        }
+    }
+    
+    public boolean canUndo() {
+        return !finished && history.canUndo();
+    }
+    
+    public boolean canRedo() {
+        return !finished && history.canRedo();
+    }
+    
+    // Back to the end of the previous turn, or to the start of the current
+    // one if it is still in progress
+    public void undo() {
+        if (canUndo()) {
+            rewind(history.isAtCheckpoint() ? history.getTurn() - 1 : history.getTurn());
+        }
+    }
+    
+    public void redo() {
+        if (canRedo()) {
+            rewind(history.getTurn() + 1);
+        }
+    }
+    
+    // Jumps to the end of the given turn; 0 is the freshly dealt board.
+    // Ignored once the game is over.
+    public void rewind(int targetTurn) {
+        if (finished) {
+            return;
+        }
+        rewound = true;
+        if (journal != null) {
+            journal.rewind(turnJournalPositions[targetTurn]);
+        }
+        history.rewind(targetTurn);
+        syncTurns();
+    }
+    
+    // True once undo, redo or rewind was used in this game
+    public boolean isRewound() {
+        return rewound;
+    }
+    
+    // True once this game was over, even if its last turn is shown again
+    public boolean isFinished() {
+        return finished;
+    }
+    
+    // The player's score without the pairs of a practice game, which do not
+    // count; they are taken off when the next game starts
+    public int getCountedScore(Player player) {
+        return rewound ? player.getScore() - player.getGamePairs() : player.getScore();
+    }
+    
+    private void syncTurns() {
+        turn.set(history.getTurn());
+        lastTurn.set(history.getLastTurn());
+    }
+    
+    private void recordTurnPosition() {
+        int index = history.getTurn();
+        if (index >= turnJournalPositions.length) {
+            turnJournalPositions = Arrays.copyOf(turnJournalPositions, Math.max(index + 1, 2 * turnJournalPositions.length));
+        }
+        turnJournalPositions[index] = journal != null ? journal.position() : -1;
+    }
+    
+    // The finished (or abandoned) game for the results history. Every player
+    // with the most pairs in this game wins.
+    public GameResult result(long durationMillis) {
+        int best = 0;
+        for (Player player : players) {
+            best = Math.max(best, player.getGamePairs());
+        }
+        List<GameResult.Seat> seats = new ArrayList<>(players.size());
+        for (Player player : players) {
+            seats.add(new GameResult.Seat(player.getName(), player.getGamePairs(),
+                    player.getGamePairs() == best, player instanceof BotPlayer));
+        }
+        return new GameResult(System.currentTimeMillis(), engine.getCardCount() / 2, engine.getTries(),
+                durationMillis, seats);
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public boolean isCompactBoard() {
+        return lazyCards != null;
+    }
+    
+    // Approximate heap bytes used per card by the current board layout
+    public double getBytesPerCard() {
+        double boardBytes = engine.getBoard().bytesPerCard();
+        int cardCount = engine.getCardCount();
+        if (cardCount == 0) {
+            return boardBytes;
+        }
+        int cardObjects = lazyCards != null ? lazyCards.materializedCount() : cardCount;
+        return boardBytes + (double) cardObjects * CARD_OBJECT_BYTES / cardCount;
     }
     
     public void flipCard(int index) {
-        if (index < 0 || index >= cards.size()) {
+        int first = engine.getFirstCardIndex();
+        if (!engine.flipCard(index)) {
             return;
         }
-        
-        Card card = cards.get(index);
-        
-        // Can't flip a card that's already matched or flipped
-        if (card.isMatched() || card.isFlipped() || waitingForFlipBack) {
+        Metrics.flipped();
+        if (journal == null) {
             return;
         }
-        
-        // Flip the card
-        card.setFlipped(true);
-        
-        // Check if this is the first or second card being flipped
-        if (firstCard == null) {
-            // First card flipped
-            firstCard = card;
-            firstCardIndex = index;
-        } else {
-            // Second card flipped
-            secondCard = card;
-            secondCardIndex = index;
-            tries.set(tries.get() + 1);
-            
-            // Check for a match
-            if (firstCard.getValue().equals(card.getValue())) {
-                // Match found
-                firstCard.setMatched(true);
-                card.setMatched(true);
-                getCurrentPlayer().incrementScore();
-                matchedPairs.set(matchedPairs.get() + 1);
-                
-                // Check if game is over
-                if (matchedPairs.get() == cards.size() / 2) {
-                    gameOver.set(true);
-                }
-                
-                // Reset cards for next turn
-                resetFlippedCards();
+        journal.flip(index);
+        if (first >= 0) {
+            if (engine.isMatched(index)) {
+                journal.match(first, index, engine.getPlayerCount() > 0 ? engine.getCurrentPlayerIndex() : -1);
             } else {
-                // No match, mark for flip back and switch player
-                waitingForFlipBack = true;
-                nextPlayer();
+                journal.mismatch(first, index);
             }
         }
     }
     
     public void flipCardsBack() {
-        if (firstCard != null && !firstCard.isMatched()) {
-            firstCard.setFlipped(false);
-        }
-        
-        if (secondCard != null && !secondCard.isMatched()) {
-            secondCard.setFlipped(false);
+        if (journal != null && engine.getFirstCardIndex() >= 0) {
+            journal.flipBack();
         }
-        
-        resetFlippedCards();
-    }
-    
-    private void resetFlippedCards() {
-        firstCard = null;
-        firstCardIndex = -1;
-        secondCard = null;
-        secondCardIndex = -1;
-        waitingForFlipBack = false;
+        engine.flipCardsBack();
     }
     
     public boolean isWaitingForFlipBack() {
-        return waitingForFlipBack;
+        return engine.isWaitingForFlipBack();
     }
     
     public int[] getFlippedCardIndices() {
-        if (firstCardIndex >= 0 && secondCardIndex >= 0) {
-            return new int[] { firstCardIndex, secondCardIndex };
-        } else if (firstCardIndex >= 0) {
-            return new int[] { firstCardIndex };
-        }
-        return new int[0];
+        return engine.getFlippedCardIndices();
     }
     
     public void flipCardBack(int index) {
-        if (index >= 0 && index < cards.size()) {
-            Card card = cards.get(index);
-            if (!card.isMatched()) {
-                card.setFlipped(false);
-            }
+        engine.flipCardBack(index);
+        if (journal != null) {
+            journal.flipBackOne(index);
         }
     }
     
@@ -159,8 +344,20 @@ public class MemoryGame {
     }
     
     public void nextPlayer() {
-        if (players.size() > 1) {
-            currentPlayerIndex.set((currentPlayerIndex.get() + 1) % players.size());
+        engine.nextPlayer();
+        if (journal != null) {
+            journal.nextPlayer(engine.getCurrentPlayerIndex());
+        }
+    }
+    
+    // Hands the turn to a given player, e.g. when a server decides whose turn it is
+    public void setCurrentPlayer(int index) {
+        if (index == engine.getCurrentPlayerIndex()) {
+            return;
+        }
+        engine.setCurrentPlayerIndex(index);
+        if (journal != null) {
+            journal.nextPlayer(index);
         }
     }
     
@@ -168,6 +365,15 @@ public class MemoryGame {
         players.add(player);
     }
     
+    // Looks up a player of this game by name in O(1)
+    public Player getPlayer(String name) {
+        return playersByName.get(name);
+    }
+    
+    public GameEngine getEngine() {
+        return engine;
+    }
+    
     public ObservableList<Card> getCards() {
         return cards;
     }
@@ -191,4 +397,169 @@ public class MemoryGame {
     public BooleanProperty gameOverProperty() {
         return gameOver;
     }
-}
\ No newline at end of file
+    
+    // Turn the board is at, for undo and rewind
+    public ReadOnlyIntegerProperty turnProperty() {
+        return turn;
+    }
+    
+    public ReadOnlyIntegerProperty lastTurnProperty() {
+        return lastTurn;
+    }
+    
+    private Card cardAt(int index) {
+        return lazyCards != null ? lazyCards.peek(index) : cards.get(index);
+    }
+    
+    // Copies engine events into the JavaFX properties
+    private class PropertySync implements GameListener {
+        @Override
+        public void boardInitialized(int cardCount) {
+            matchedPairs.set(0);
+            tries.set(0);
+            gameOver.set(false);
+            syncTurns();
+        }
+        
+        @Override
+        public void cardFlipped(int index, boolean flipped) {
+            Card card = cardAt(index);
+            if (card != null) {
+                card.setFlipped(flipped);
+            }
+        }
+        
+        @Override
+        public void cardsMatched(int firstIndex, int secondIndex, int playerIndex) {
+            Card first = cardAt(firstIndex);
+            if (first != null) {
+                first.setMatched(true);
+            }
+            Card second = cardAt(secondIndex);
+            if (second != null) {
+                second.setMatched(true);
+            }
+            if (playerIndex >= 0) {
+                Player player = players.get(playerIndex);
+                player.incrementScore();
+                player.setGamePairs(player.getGamePairs() + 1);
+            }
+            matchedPairs.set(engine.getMatchedPairs());
+        }
+        
+        @Override
+        public void triesChanged(int newTries) {
+            tries.set(newTries);
+        }
+        
+        @Override
+        public void currentPlayerChanged(int playerIndex) {
+            currentPlayerIndex.set(playerIndex);
+        }
+        
+        @Override
+        public void gameOver() {
+            finished = true;
+            gameOver.set(true);
+        }
+        
+        @Override
+        public void stateRestored() {
+            if (lazyCards != null) {
+                lazyCards.reset(engine.getCardCount());
+            } else {
+                for (int i = 0; i < cards.size(); i++) {
+                    Card card = cards.get(i);
+                    card.setFlipped(engine.isFlipped(i));
+                    card.setMatched(engine.isMatched(i));
+                }
+            }
+            tries.set(engine.getTries());
+            matchedPairs.set(engine.getMatchedPairs());
+            currentPlayerIndex.set(engine.getCurrentPlayerIndex());
+            gameOver.set(engine.isGameOver());
+        }
+        
+        @Override
+        public void turnRestored(int[] changedCards) {
+            for (int index : changedCards) {
+                Card card = cardAt(index);
+                if (card != null) {
+                    card.setFlipped(engine.isFlipped(index));
+                    card.setMatched(engine.isMatched(index));
+                }
+            }
+            // Pairs found in this game go back too; the total score follows
+            int[] pairs = history.getCurrent().playerPairs();
+            for (int i = 0; i < players.size(); i++) {
+                Player player = players.get(i);
+                int restored = i < pairs.length ? pairs[i] : 0;
+                player.setScore(player.getScore() + restored - player.getGamePairs());
+                player.setGamePairs(restored);
+            }
+            tries.set(engine.getTries());
+            matchedPairs.set(engine.getMatchedPairs());
+            currentPlayerIndex.set(engine.getCurrentPlayerIndex());
+            gameOver.set(engine.isGameOver());
+        }
+    }
+    
+    // Lets every computer player see the cards that are turned over
+    private class BotObserver implements GameListener {
+        @Override
+        public void boardInitialized(int cardCount) {
+            for (Player player : players) {
+                if (player instanceof BotPlayer bot) {
+                    bot.getBot().reset(cardCount);
+                }
+            }
+        }
+        
+        @Override
+        public void cardFlipped(int index, boolean flipped) {
+            if (!flipped) {
+                return;
+            }
+            int value = engine.getValue(index);
+            for (Player player : players) {
+                if (player instanceof BotPlayer bot) {
+                    bot.getBot().revealed(index, value);
+                }
+            }
+        }
+        
+        @Override
+        public void cardsMatched(int firstIndex, int secondIndex, int playerIndex) {
+            for (Player player : players) {
+                if (player instanceof BotPlayer bot) {
+                    bot.getBot().matched(firstIndex, secondIndex);
+                }
+            }
+        }
+        
+        @Override
+        public void stateRestored() {
+            // Bots start over with what is visible on the table
+            boardInitialized(engine.getCardCount());
+            for (int i = 0; i < engine.getCardCount(); i++) {
+                if (engine.isMatched(i)) {
+                    cardsMatched(i, i, -1);
+                } else if (engine.isFlipped(i)) {
+                    cardFlipped(i, true);
+                }
+            }
+        }
+        
+        @Override
+        public void turnRestored(int[] changedCards) {
+            // Bots forget what they saw in the undone turns; without bots
+            // there is nothing to rebuild
+            for (Player player : players) {
+                if (player instanceof BotPlayer) {
+                    stateRestored();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package org.example.demo.model;
+
+import org.example.demo.rating.BulkRater;
+import org.example.demo.rating.PlayerRating;
+import org.example.demo.rating.RatingHistory;
+import org.example.demo.rating.RatingParameters;
+import org.h2.mvstore.Cursor;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Players stored in H2's MVStore, the key-value engine underneath the H2
+// database, without the SQL layer on top: no parsing, planning or JDBC
+// round trips. Two maps are kept in step:
+// - players: name -> id and score packed into a long
+// - ranking: leaderboard key -> name, sorted score descending, then id,
+//   so leaderboard pages are a range scan from a key
+// Finished games go to a history map keyed by game number, and each human
+// player's aggregates are updated in a stats map in the same step, and the
+// ratings of multiplayer games in a ratings map.
+// Writes only change in-memory pages; MVStore's background thread commits
+// them every AUTO_COMMIT_MILLIS, and close() commits the rest.
+public class MvStorePlayerRepository implements PlayerRepository {
+    private static final int AUTO_COMMIT_MILLIS = 1000;
+    private static final String LAST_ID = "lastId";
+
+    private final MVStore store;
+    private final MVMap<String, Long> players;
+    private final MVMap<Long, String> ranking;
+    private final MVMap<String, Integer> meta;
+    private final MVMap<Long, byte[]> history;
+    private final MVMap<String, byte[]> stats;
+    private final MVMap<String, byte[]> ratings;
+    private final RatingParameters ratingParameters = RatingParameters.configured();
+    private int lastId;
+
+    public MvStorePlayerRepository(Path file) {
+        store = new MVStore.Builder()
+                .fileName(file.toString())
+                .open();
+        store.setAutoCommitDelay(AUTO_COMMIT_MILLIS);
+        players = store.openMap("players");
+        ranking = store.openMap("ranking");
+        meta = store.openMap("meta");
+        history = store.openMap("history");
+        stats = store.openMap("stats");
+        ratings = store.openMap("ratings");
+        lastId = meta.getOrDefault(LAST_ID, 0);
+    }
+
+    @Override
+    public synchronized void savePlayer(Player player) {
+        String name = player.getName();
+        int score = player.getScore();
+        Long old = players.get(name);
+        int id;
+        if (old != null) {
+            id = id(old);
+            if (score(old) == score) {
+                player.setId(id);
+                return;
+            }
+            ranking.remove(rankKey(score(old), id));
+        } else {
+            id = ++lastId;
+            meta.put(LAST_ID, id);
+        }
+        players.put(name, (long) id << 32 | (score & 0xFFFFFFFFL));
+        ranking.put(rankKey(score, id), name);
+        player.setId(id);
+    }
+
+    // Only touches memory, the background commit does the I/O
+    @Override
+    public void savePlayerAsync(Player player) {
+        savePlayer(player);
+    }
+
+    @Override
+    public List<LeaderboardEntry> getTopPlayers() {
+        return loadLeaderboard(TOP_PLAYERS);
+    }
+
+    @Override
+    public List<LeaderboardEntry> loadLeaderboard(int limit) {
+        return page(ranking.cursor(null), limit);
+    }
+
+    @Override
+    public List<LeaderboardEntry> loadLeaderboard(int afterScore, int afterId, int limit) {
+        return page(ranking.cursor(rankKey(afterScore, afterId) + 1), limit);
+    }
+
+    private static List<LeaderboardEntry> page(Cursor<Long, String> cursor, int limit) {
+        List<LeaderboardEntry> page = new ArrayList<>();
+        while (page.size() < limit && cursor.hasNext()) {
+            long key = cursor.next();
+            page.add(new LeaderboardEntry((int) key, cursor.getValue(), ~(int) (key >> 32)));
+        }
+        return page;
+    }
+
+    @Override
+    public List<Player> loadPlayers() {
+        List<Player> result = new ArrayList<>(ranking.size());
+        for (LeaderboardEntry entry : page(ranking.cursor(null), Integer.MAX_VALUE)) {
+            result.add(entry.toPlayer());
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void recordGame(GameResult result) {
+        Long last = history.lastKey();
+        history.put(last == null ? 1 : last + 1, encode(result));
+        for (GameResult.Seat seat : result.seats()) {
+            if (!seat.bot()) {
+                PlayerStats current = getStats(seat.name());
+                if (current == null) {
+                    current = PlayerStats.empty(seat.name());
+                }
+                stats.put(seat.name(), encode(current.add(result.triesPerPair(), seat.winner(), result.durationMillis())));
+            }
+        }
+        if (result.isRated()) {
+            for (PlayerRating rating : result.rate(this::getRating, ratingParameters)) {
+                ratings.put(rating.name(), encode(rating));
+            }
+        }
+    }
+
+    @Override
+    public PlayerStats getStats(String name) {
+        byte[] encoded = stats.get(name);
+        if (encoded == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        return new PlayerStats(name, buffer.getInt(), buffer.getInt(), buffer.getDouble(), buffer.getDouble(),
+                buffer.getLong());
+    }
+
+    @Override
+    public PlayerRating getRating(String name) {
+        byte[] encoded = ratings.get(name);
+        if (encoded == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(encoded);
+        return new PlayerRating(name, buffer.getDouble(), buffer.getInt());
+    }
+
+    // Ratings are not kept in rating order, so this scans the ratings map;
+    // one small entry per rated player
+    @Override
+    public List<PlayerRating> loadRatings(int limit) {
+        List<PlayerRating> all = new ArrayList<>(ratings.size());
+        for (Cursor<String, byte[]> cursor = ratings.cursor(null); cursor.hasNext(); ) {
+            String name = cursor.next();
+            ByteBuffer buffer = ByteBuffer.wrap(cursor.getValue());
+            all.add(new PlayerRating(name, buffer.getDouble(), buffer.getInt()));
+        }
+        return InMemoryPlayerRepository.topRatings(all, limit);
+    }
+
+    // Reads only the seats' names and pairs out of the encoded history
+    @Override
+    public synchronized int recomputeRatings(RatingParameters parameters) {
+        RatingHistory replay = new RatingHistory();
+        for (Cursor<Long, byte[]> cursor = history.cursor(null); cursor.hasNext(); ) {
+            long game = cursor.next();
+            ByteBuffer buffer = ByteBuffer.wrap(cursor.getValue());
+            buffer.position(8 + 4 + 4 + 8);
+            int seats = buffer.getInt();
+            for (int seat = 0; seat < seats; seat++) {
+                int pairs = buffer.getInt();
+                buffer.get(); // flags
+                byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                replay.addSeat(game, new String(name, StandardCharsets.UTF_8), pairs);
+            }
+        }
+        for (PlayerRating rating : BulkRater.recompute(replay, parameters)) {
+            if (rating.games() > 0) {
+                ratings.put(rating.name(), encode(rating));
+            }
+        }
+        store.commit();
+        return replay.gameCount();
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    private static byte[] encode(PlayerRating rating) {
+        return ByteBuffer.allocate(12).putDouble(rating.rating()).putInt(rating.games()).array();
+    }
+
+    private static byte[] encode(PlayerStats playerStats) {
+        return ByteBuffer.allocate(32)
+                .putInt(playerStats.games()).putInt(playerStats.wins())
+                .putDouble(playerStats.triesPerPairMean()).putDouble(playerStats.triesPerPairM2())
+                .putLong(playerStats.bestTimeMillis())
+                .array();
+    }
+
+    // finishedAt, pairs, tries, duration, then per seat: pairs, flags, name
+    private static byte[] encode(GameResult result) {
+        List<byte[]> names = new ArrayList<>(result.seats().size());
+        int size = 8 + 4 + 4 + 8 + 4;
+        for (GameResult.Seat seat : result.seats()) {
+            byte[] name = seat.name().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            size += 4 + 1 + 4 + name.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size)
+                .putLong(result.finishedAtMillis()).putInt(result.pairs()).putInt(result.tries())
+                .putLong(result.durationMillis()).putInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            GameResult.Seat seat = result.seats().get(i);
+            buffer.putInt(seat.pairs()).put((byte) ((seat.winner() ? 1 : 0) | (seat.bot() ? 2 : 0)))
+                    .putInt(names.get(i).length).put(names.get(i));
+        }
+        return buffer.array();
+    }
+
+    // Ascending keys give descending scores (~score reverses the order of
+    // every int), ties broken by ascending id
+    private static long rankKey(int score, int id) {
+        return (long) ~score << 32 | (id & 0xFFFFFFFFL);
+    }
+
+    private static int id(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int score(long packed) {
+        return (int) packed;
+    }
+}
@@ -8,7 +8,8 @@ import javafx.beans.property.StringProperty;
 public class Player {
     private final StringProperty name = new SimpleStringProperty();
     private final IntegerProperty score = new SimpleIntegerProperty(0);
-    private int id; // Used for database persistence
+    private volatile int id; // Used for database persistence, set by the background writer
+    private int gamePairs; // pairs found in the current game, score counts all games
     
     public Player(String name) {
         this.name.set(name);
@@ -48,6 +49,14 @@ public class Player {
         score.set(score.get() + 1);
     }
     
+    public int getGamePairs() {
+        return gamePairs;
+    }
+    
+    public void setGamePairs(int gamePairs) {
+        this.gamePairs = gamePairs;
+    }
+    
     public int getId() {
         return id;
     }
@@ -0,0 +1,232 @@
+package org.example.demo.model;
+
+import org.example.demo.archive.RecordReader;
+import org.example.demo.archive.RecordWriter;
+import org.example.demo.metrics.Metrics;
+import org.example.demo.rating.RatingParameters;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.*;
+
+// Streaming export and import of the JDBC store's players and game history,
+// as CSV or the compact binary format (chosen by file extension, see
+// RecordWriter).
+//
+// Exports read through a forward-only cursor (DatabaseService.streamQuery)
+// and write each row straight into the file buffer. Imports add rows to
+// batches of about BATCH_SIZE and commit every so often. No Player or
+// GameResult objects are created and memory use does not grow with the
+// number of rows; only the rating recompute after a history import keeps
+// its flat arrays of seats.
+//
+// Players are merged by name, keeping the better score. Imported games get
+// new ids after the existing ones. Run it with the game closed.
+public final class PlayerArchive {
+    static final String[] PLAYER_COLUMNS = { "name", "score" };
+    static final String[] GAME_COLUMNS = { "game", "finished_at_ms", "pairs", "tries", "duration_ms",
+            "seat", "name", "seat_pairs", "winner", "bot" };
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COMMIT_ROWS = 50_000;
+    private static final int COMMIT_GAMES = 20_000;
+
+    private static final String MERGE_BEST_SCORE_SQL = "MERGE INTO players p USING (VALUES (?, ?)) v(name, score) " +
+            "ON p.name = v.name " +
+            "WHEN MATCHED AND v.score > p.score THEN UPDATE SET score = v.score " +
+            "WHEN NOT MATCHED THEN INSERT (name, score) VALUES (v.name, v.score)";
+    private static final String INSERT_GAME_WITH_ID_SQL = "INSERT INTO game_results " +
+            "(id, finished_at, pairs, tries, duration_ms, player_count) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private PlayerArchive() {
+    }
+
+    // Returns the number of players written
+    public static long exportPlayers(DatabaseService db, Path file) throws IOException, SQLException {
+        long start = Metrics.start();
+        long rows = 0;
+        try (Connection connection = db.openBulkConnection();
+             Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = DatabaseService.streamQuery(stmt, "SELECT name, score FROM players ORDER BY id");
+             RecordWriter out = RecordWriter.open(file, PLAYER_COLUMNS)) {
+            while (rs.next()) {
+                out.writeString(rs.getString(1));
+                out.writeInt(rs.getInt(2));
+                out.endRecord();
+                rows++;
+            }
+        }
+        Metrics.jdbc("exportPlayers", start);
+        return rows;
+    }
+
+    // One record per seat, in game and seat order; the game columns repeat
+    // for every seat of a game. Returns the number of seats written.
+    public static long exportGames(DatabaseService db, Path file) throws IOException, SQLException {
+        long start = Metrics.start();
+        long rows = 0;
+        try (Connection connection = db.openBulkConnection();
+             Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ResultSet rs = DatabaseService.streamQuery(stmt,
+                     "SELECT g.id, g.finished_at, g.pairs, g.tries, g.duration_ms, " +
+                     "p.seat, p.name, p.pairs, p.winner, p.bot " +
+                     "FROM game_players p JOIN game_results g ON g.id = p.game_id ORDER BY p.game_id, p.seat");
+             RecordWriter out = RecordWriter.open(file, GAME_COLUMNS)) {
+            while (rs.next()) {
+                out.writeLong(rs.getLong(1));
+                out.writeLong(rs.getTimestamp(2).getTime());
+                out.writeInt(rs.getInt(3));
+                out.writeInt(rs.getInt(4));
+                out.writeLong(rs.getLong(5));
+                out.writeInt(rs.getInt(6));
+                out.writeString(rs.getString(7));
+                out.writeInt(rs.getInt(8));
+                out.writeBoolean(rs.getBoolean(9));
+                out.writeBoolean(rs.getBoolean(10));
+                out.endRecord();
+                rows++;
+            }
+        }
+        Metrics.jdbc("exportGames", start);
+        return rows;
+    }
+
+    // Returns the number of players read
+    public static long importPlayers(DatabaseService db, Path file) throws IOException, SQLException {
+        long start = Metrics.start();
+        long rows = 0;
+        try (RecordReader in = RecordReader.open(file, PLAYER_COLUMNS);
+             Connection connection = db.openBulkConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement merge = connection.prepareStatement(MERGE_BEST_SCORE_SQL)) {
+                while (in.next()) {
+                    merge.setString(1, in.readString());
+                    merge.setInt(2, in.readInt());
+                    merge.addBatch();
+                    rows++;
+                    if (rows % BATCH_SIZE == 0) {
+                        merge.executeBatch();
+                    }
+                    if (rows % COMMIT_ROWS == 0) {
+                        connection.commit();
+                    }
+                }
+                merge.executeBatch();
+                connection.commit();
+            } catch (IOException | SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        Metrics.jdbc("importPlayers", start);
+        return rows;
+    }
+
+    // Appends the games to the history, then rebuilds the stats and ratings
+    // from the whole history. Seats of a game must be consecutive, as written
+    // by exportGames. Returns the number of games read.
+    public static long importGames(DatabaseService db, Path file) throws IOException, SQLException {
+        long start = Metrics.start();
+        long games = 0;
+        try (RecordReader in = RecordReader.open(file, GAME_COLUMNS);
+             Connection connection = db.openBulkConnection()) {
+            connection.setAutoCommit(false);
+            long firstId;
+            try (Statement stmt = connection.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM game_results")) {
+                rs.next();
+                firstId = rs.getLong(1);
+            }
+            try (PreparedStatement insertGame = connection.prepareStatement(INSERT_GAME_WITH_ID_SQL);
+                 PreparedStatement insertSeat = connection.prepareStatement(DatabaseService.INSERT_SEAT_SQL)) {
+                // The game row is added once its seats are counted; seats are
+                // only sent after their game, the foreign key needs it first
+                long lastGame = 0;
+                long id = firstId - 1;
+                int gameSeats = 0;
+                long seats = 0;
+                while (in.next()) {
+                    long game = in.readLong();
+                    long finishedAt = in.readLong();
+                    int pairs = in.readInt();
+                    int tries = in.readInt();
+                    long duration = in.readLong();
+                    if (games == 0 || game != lastGame) {
+                        if (games > 0) {
+                            insertGame.setInt(6, gameSeats);
+                            insertGame.addBatch();
+                            if (seats >= BATCH_SIZE) {
+                                insertGame.executeBatch();
+                                insertSeat.executeBatch();
+                                seats = 0;
+                            }
+                        }
+                        lastGame = game;
+                        id++;
+                        games++;
+                        gameSeats = 0;
+                        insertGame.setLong(1, id);
+                        insertGame.setTimestamp(2, new Timestamp(finishedAt));
+                        insertGame.setInt(3, pairs);
+                        insertGame.setInt(4, tries);
+                        insertGame.setLong(5, duration);
+                        if (games % COMMIT_GAMES == 0) {
+                            connection.commit();
+                        }
+                    }
+                    insertSeat.setLong(1, id);
+                    insertSeat.setInt(2, in.readInt());
+                    insertSeat.setString(3, in.readString());
+                    insertSeat.setInt(4, in.readInt());
+                    insertSeat.setBoolean(5, in.readBoolean());
+                    insertSeat.setBoolean(6, in.readBoolean());
+                    insertSeat.addBatch();
+                    gameSeats++;
+                    seats++;
+                }
+                if (games > 0) {
+                    insertGame.setInt(6, gameSeats);
+                    insertGame.addBatch();
+                }
+                insertGame.executeBatch();
+                insertSeat.executeBatch();
+                connection.commit();
+            } catch (IOException | SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                // Ids were given explicitly, so move the generator past them,
+                // also past the games already committed by a failed import
+                try (Statement stmt = connection.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM game_results")) {
+                    rs.next();
+                    stmt.execute("ALTER TABLE game_results ALTER COLUMN id RESTART WITH " + rs.getLong(1));
+                }
+            }
+        }
+        Metrics.jdbc("importGames", start);
+        db.rebuildStats();
+        db.recomputeRatings(RatingParameters.configured());
+        return games;
+    }
+
+    // Usage: PlayerArchive export|import players|games <file.csv|file.bin>
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length != 3 || !args[0].matches("export|import") || !args[1].matches("players|games")) {
+            System.err.println("Usage: PlayerArchive export|import players|games <file.csv|file.bin>");
+            System.exit(2);
+        }
+        boolean export = args[0].equals("export");
+        boolean players = args[1].equals("players");
+        Path file = Path.of(args[2]);
+        try (DatabaseService db = new DatabaseService()) {
+            long start = System.nanoTime();
+            long rows = export
+                    ? (players ? exportPlayers(db, file) : exportGames(db, file))
+                    : (players ? importPlayers(db, file) : importGames(db, file));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%s %d %s in %d ms%n", export ? "exported" : "imported", rows,
+                    players ? "players" : export ? "seats" : "games", elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.demo.model;
+
+import org.example.demo.metrics.Metrics;
+import org.example.demo.rating.PlayerRating;
+import org.example.demo.rating.RatingParameters;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Storage for players and their best scores. Players are identified by name;
+// saving an unknown name creates it and assigns an id, saving a known name
+// updates its score. Leaderboards are ordered by score descending, then id.
+//
+// Backends, chosen with -Dmemory.store:
+// - jdbc (default): H2 database through JDBC and SQL (DatabaseService)
+// - mvstore: H2's MVStore key-value engine directly, no SQL layer
+// - memory: nothing is stored, for tests and simulations
+public interface PlayerRepository extends AutoCloseable {
+    String STORE_PROPERTY = "memory.store";
+    int TOP_PLAYERS = 20;
+
+    // Saves the player and sets its id
+    void savePlayer(Player player);
+
+    // Saves the player without blocking the caller on I/O; the name and score
+    // are read right away, the id is set once the write is done
+    void savePlayerAsync(Player player);
+
+    // Best players, for the player list at startup
+    List<LeaderboardEntry> getTopPlayers();
+
+    // First page of the leaderboard
+    List<LeaderboardEntry> loadLeaderboard(int limit);
+
+    // Next page after the last row of the previous page
+    List<LeaderboardEntry> loadLeaderboard(int afterScore, int afterId, int limit);
+
+    // Every player; prefer the leaderboard methods for large stores
+    List<Player> loadPlayers();
+
+    // Adds a finished game to the history, folds it into the statistics of
+    // its human players and, for multiplayer games, updates the ratings of
+    // every seat with RatingParameters.configured(); may return before the
+    // write is done
+    void recordGame(GameResult result);
+
+    // Aggregates over the player's recorded games, null if there are none
+    PlayerStats getStats(String name);
+
+    // Current rating, null before the player's first multiplayer game
+    PlayerRating getRating(String name);
+
+    // Highest ratings first
+    List<PlayerRating> loadRatings(int limit);
+
+    // Replays the whole history with new parameters and replaces every
+    // rating; returns the number of games replayed. Meant for maintenance
+    // (RecomputeRatings), not while games are being recorded.
+    int recomputeRatings(RatingParameters parameters);
+
+    // Writes what is still pending and releases the store
+    @Override
+    void close();
+
+    // Opens the configured backend under the default name
+    static PlayerRepository open() {
+        return open(System.getProperty(STORE_PROPERTY, "jdbc"), Path.of("memory-game"));
+    }
+
+    // Opens a backend; base is the path without extension, each backend adds its own
+    static PlayerRepository open(String store, Path base) {
+        return switch (store) {
+            case "jdbc" -> new DatabaseService("jdbc:h2:" + base);
+            case "mvstore" -> new MvStorePlayerRepository(base.resolveSibling(base.getFileName() + "-players.mvstore"));
+            case "memory" -> new InMemoryPlayerRepository();
+            default -> throw new IllegalArgumentException("Unknown player store '" + store
+                    + "', expected jdbc, mvstore or memory");
+        };
+    }
+
+    // Opens the configured backend and reads the top players on a background
+    // thread, so the caller can show its window in the meantime
+    static CompletableFuture<PlayerRepository> openAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = Metrics.start();
+            PlayerRepository repository = open();
+            repository.getTopPlayers();
+            Metrics.startupPhase("database", start);
+            return repository;
+        }, runnable -> {
+            Thread thread = new Thread(runnable, "database-open");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.demo.model;
+
+// Running aggregates of a player's finished games. Mean and variance of
+// tries per pair are kept with Welford's method, so each game updates them
+// in O(1) without the history. bestTimeMillis is the fastest won game, 0 if
+// the player has not won yet.
+public record PlayerStats(String name, int games, int wins, double triesPerPairMean, double triesPerPairM2,
+                          long bestTimeMillis) {
+
+    public static PlayerStats empty(String name) {
+        return new PlayerStats(name, 0, 0, 0, 0, 0);
+    }
+
+    public PlayerStats add(double triesPerPair, boolean won, long durationMillis) {
+        int count = games + 1;
+        double delta = triesPerPair - triesPerPairMean;
+        double mean = triesPerPairMean + delta / count;
+        double m2 = triesPerPairM2 + delta * (triesPerPair - mean);
+        long best = won && (bestTimeMillis == 0 || durationMillis < bestTimeMillis) ? durationMillis : bestTimeMillis;
+        return new PlayerStats(name, count, wins + (won ? 1 : 0), mean, m2, best);
+    }
+
+    public double winRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    // Sample variance, 0 until there are two games
+    public double triesPerPairVariance() {
+        return games < 2 ? 0 : triesPerPairM2 / (games - 1);
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.demo.model;
+
+import org.example.demo.metrics.Metrics;
+import org.example.demo.rating.RatingParameters;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Background writer for player scores. Callers only record the latest
+// (name, score) of a player; a single daemon thread picks up everything that is
+// pending, collapses repeated updates of the same player and writes them as
+// one upsert batch in a single transaction on its own connection. Finished
+// games are written by the same thread, after the scores.
+class PlayerWriteBehind {
+    private static final Player POISON = new Player("");
+    private static final Player WAKE = new Player(""); // a game result was queued
+
+    private record PendingWrite(Player player, String name, int score) {
+    }
+
+    private final Map<Player, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final BlockingQueue<Player> dirty = new LinkedBlockingQueue<>();
+    private final Queue<GameResult> games = new ConcurrentLinkedQueue<>();
+    private final Connection connection;
+    private final LeaderboardCache leaderboard;
+    private final RatingParameters ratingParameters;
+    private final Thread writer;
+
+    PlayerWriteBehind(String url, String user, String password, LeaderboardCache leaderboard,
+                      RatingParameters ratingParameters) throws SQLException {
+        this.leaderboard = leaderboard;
+        this.ratingParameters = ratingParameters;
+        connection = DriverManager.getConnection(url, user, password);
+        connection.setAutoCommit(false);
+        writer = new Thread(this::run, "player-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Must be called on the thread that owns the player (the FX thread);
+    // name and score are copied so the writer never touches the properties.
+    void enqueue(Player player) {
+        if (pending.put(player, new PendingWrite(player, player.getName(), player.getScore())) == null) {
+            dirty.add(player);
+        }
+    }
+
+    // Finished games are written in arrival order, several at once if they
+    // queue up while the writer is busy
+    void enqueue(GameResult result) {
+        games.add(result);
+        dirty.add(WAKE);
+    }
+
+    // Writes what is still pending and stops the writer. Returns false if the
+    // writer did not finish within the timeout.
+    boolean close(long timeout, TimeUnit unit) {
+        dirty.add(POISON);
+        try {
+            writer.join(unit.toMillis(timeout));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            System.err.println("Player writer did not finish, " + pending.size() + " updates not saved");
+            return false;
+        }
+        return true;
+    }
+
+    private void run() {
+        List<Player> players = new ArrayList<>();
+        try {
+            boolean running = true;
+            while (running) {
+                players.add(dirty.take());
+                dirty.drainTo(players);
+
+                List<PendingWrite> batch = new ArrayList<>(players.size());
+                for (Player player : players) {
+                    if (player == POISON) {
+                        running = false;
+                        continue;
+                    }
+                    if (player == WAKE) {
+                        continue;
+                    }
+                    PendingWrite write = pending.remove(player);
+                    if (write != null) {
+                        batch.add(write);
+                    }
+                }
+                players.clear();
+
+                if (!batch.isEmpty()) {
+                    writeBatch(batch);
+                }
+                List<GameResult> finished = new ArrayList<>();
+                for (GameResult result; (result = games.poll()) != null; ) {
+                    finished.add(result);
+                }
+                if (!finished.isEmpty()) {
+                    writeGames(finished);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void writeGames(List<GameResult> finished) {
+        long start = Metrics.start();
+        try {
+            DatabaseService.insertGames(connection, finished, ratingParameters);
+            connection.commit();
+            Metrics.jdbc("writeGames", start);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                rollbackError.printStackTrace();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        long start = Metrics.start();
+        try (PreparedStatement merge = connection.prepareStatement(DatabaseService.MERGE_PLAYER_SQL, DatabaseService.GENERATED_ID)) {
+            for (PendingWrite write : batch) {
+                merge.setString(1, write.name());
+                merge.setInt(2, write.score());
+                merge.addBatch();
+            }
+            merge.executeBatch();
+
+            // One generated id per row, in batch order
+            try (ResultSet rs = merge.getGeneratedKeys()) {
+                for (int i = 0; i < batch.size() && rs.next(); i++) {
+                    batch.get(i).player().setId(rs.getInt(1));
+                }
+            }
+            connection.commit();
+
+            Metrics.jdbc("writeBatch", start);
+
+            for (PendingWrite write : batch) {
+                leaderboard.update(write.player().getId(), write.name(), write.score());
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                rollbackError.printStackTrace();
+            }
+        }
+    }
+}
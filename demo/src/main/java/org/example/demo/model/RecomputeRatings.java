@@ -0,0 +1,28 @@
+package org.example.demo.model;
+
+import org.example.demo.rating.PlayerRating;
+import org.example.demo.rating.RatingParameters;
+
+// Replays the recorded games of the configured player store (-Dmemory.store)
+// with the current -Dmemory.elo.* parameters and prints the new top ratings.
+// Run it with the game closed after changing the parameters.
+public final class RecomputeRatings {
+
+    private RecomputeRatings() {
+    }
+
+    // Usage: RecomputeRatings [top]
+    public static void main(String[] args) {
+        int top = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        RatingParameters parameters = RatingParameters.configured();
+        try (PlayerRepository repository = PlayerRepository.open()) {
+            long start = System.nanoTime();
+            int games = repository.recomputeRatings(parameters);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("%d games replayed in %d ms with %s%n", games, elapsedMillis, parameters);
+            for (PlayerRating rating : repository.loadRatings(top)) {
+                System.out.printf("%8.1f  %5d games  %s%n", rating.rating(), rating.games(), rating.name());
+            }
+        }
+    }
+}
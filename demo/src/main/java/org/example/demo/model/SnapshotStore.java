@@ -0,0 +1,194 @@
+package org.example.demo.model;
+
+import org.example.demo.engine.EngineState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Keeps the latest snapshot of the running game on disk. Snapshots are
+// encoded and written on a background thread; if several arrive while one
+// is being written, only the newest is written next. Each write goes to a
+// temp file that is synced and then atomically renamed over the old
+// snapshot, so a crash leaves either the old or the new file, never a mix.
+public class SnapshotStore {
+    private static final int MAGIC = 0x4D534E50; // "MSNP"
+    private static final int VERSION = 2;
+    private static final int CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final Path file;
+    private final Path tempFile;
+    private final AtomicReference<GameSnapshot> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SnapshotStore(Path file) {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    // Queues the snapshot, replacing one that has not been written yet
+    public void save(GameSnapshot snapshot) {
+        pending.set(snapshot);
+        if (scheduled.compareAndSet(false, true)) {
+            writer.execute(this::writePending);
+        }
+    }
+
+    // Drops the stored snapshot, e.g. when the game is over
+    public void delete() {
+        pending.set(null);
+        writer.execute(() -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // Returns the stored snapshot, or null if there is none
+    public GameSnapshot load() {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return decode(ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN));
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Writes what is still pending and stops the writer thread
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writePending() {
+        scheduled.set(false);
+        GameSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        ByteBuffer buffer = encode(snapshot);
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static ByteBuffer encode(GameSnapshot snapshot) {
+        EngineState state = snapshot.state();
+        int words = state.flipped().length;
+        byte[][] names = new byte[snapshot.playerNames().length][];
+        int size = 4 + 4 + 8 + 4 + 4 + 4 + 4 + 4 + 4 + 4 + 1 + 4 + 3 * 8 * words + 4;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = snapshot.playerNames()[i].getBytes(StandardCharsets.UTF_8);
+            size += 4 + 4 + 4 + 1 + 4 + names[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION)
+                .putLong(snapshot.seed()).putInt(snapshot.pairs())
+                .putInt(state.cardCount()).putInt(state.tries()).putInt(state.matchedPairs())
+                .putInt(state.currentPlayerIndex()).putInt(state.firstCardIndex()).putInt(state.secondCardIndex())
+                .put((byte) (state.waitingForFlipBack() ? 1 : 0))
+                .putInt(words);
+        putLongs(buffer, state.flipped());
+        putLongs(buffer, state.matched());
+        putLongs(buffer, state.seen());
+
+        buffer.putInt(names.length);
+        for (int i = 0; i < names.length; i++) {
+            buffer.putInt(snapshot.playerIds()[i]).putInt(snapshot.playerScores()[i])
+                    .putInt(snapshot.playerGamePairs()[i]).put(snapshot.botLevels()[i]).putInt(names[i].length).put(names[i]);
+        }
+        return buffer.flip();
+    }
+
+    private static GameSnapshot decode(ByteBuffer buffer) throws IOException {
+        int version = buffer.getInt(4);
+        if (buffer.getInt() != MAGIC || version < 1 || version > VERSION) {
+            throw new IOException("Not a game snapshot");
+        }
+        buffer.getInt();
+        long seed = buffer.getLong();
+        int pairs = buffer.getInt();
+        int cardCount = buffer.getInt();
+        int tries = buffer.getInt();
+        int matchedPairs = buffer.getInt();
+        int currentPlayer = buffer.getInt();
+        int firstCard = buffer.getInt();
+        int secondCard = buffer.getInt();
+        boolean waiting = buffer.get() != 0;
+        int words = buffer.getInt();
+        long[] flipped = getLongs(buffer, words);
+        long[] matched = getLongs(buffer, words);
+        long[] seen = getLongs(buffer, words);
+        EngineState state = new EngineState(cardCount, flipped, matched, seen,
+                tries, matchedPairs, currentPlayer, firstCard, secondCard, waiting);
+
+        int playerCount = buffer.getInt();
+        String[] names = new String[playerCount];
+        int[] ids = new int[playerCount];
+        int[] scores = new int[playerCount];
+        int[] gamePairs = new int[playerCount]; // not in version 1
+        byte[] botLevels = new byte[playerCount];
+        for (int i = 0; i < playerCount; i++) {
+            ids[i] = buffer.getInt();
+            scores[i] = buffer.getInt();
+            if (version >= 2) {
+                gamePairs[i] = buffer.getInt();
+            }
+            botLevels[i] = buffer.get();
+            byte[] name = new byte[buffer.getInt()];
+            buffer.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return new GameSnapshot(seed, pairs, state, names, ids, scores, gamePairs, botLevels);
+    }
+
+    private static void putLongs(ByteBuffer buffer, long[] values) {
+        buffer.asLongBuffer().put(values);
+        buffer.position(buffer.position() + 8 * values.length);
+    }
+
+    private static long[] getLongs(ByteBuffer buffer, int count) {
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + 8 * count);
+        return values;
+    }
+}
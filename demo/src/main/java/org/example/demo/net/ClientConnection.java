@@ -0,0 +1,124 @@
+package org.example.demo.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Server side of one client socket. A virtual thread reads commands and
+// forwards them to the session; a second one drains the outbound queue and
+// writes everything that has piled up with a single flush.
+final class ClientConnection {
+    private static final byte[] CLOSE = new byte[0];
+
+    private final GameServer server;
+    private final Socket socket;
+    private final BlockingQueue<byte[]> outbound = new LinkedBlockingQueue<>();
+
+    private GameSession session;
+    private int seat = -1;
+
+    ClientConnection(GameServer server, Socket socket) {
+        this.server = server;
+        this.socket = socket;
+    }
+
+    // May be called from any thread
+    void send(byte[] message) {
+        outbound.add(message);
+    }
+
+    void run() {
+        Thread.ofVirtual().name("client-writer").start(this::writeLoop);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case Protocol.JOIN -> join(in.readInt(), in.readInt());
+                    case Protocol.FLIP -> {
+                        int seq = in.readInt();
+                        int index = in.readInt();
+                        if (session != null) {
+                            session.flip(this, seat, seq, index);
+                        } else {
+                            send(Protocol.ack(seq, false));
+                        }
+                    }
+                    case Protocol.LEAVE -> leave();
+                    default -> throw new IOException("Unknown message type " + type);
+                }
+            }
+        } catch (EOFException e) {
+            // Client closed the connection
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                e.printStackTrace();
+            }
+        } finally {
+            leave();
+            outbound.add(CLOSE);
+        }
+    }
+
+    private void join(int pairs, int players) throws IOException {
+        if (pairs < 1 || pairs > Protocol.MAX_PAIRS || players < 1 || players > Protocol.MAX_PLAYERS) {
+            throw new IOException("Invalid game size: " + pairs + " pairs, " + players + " players");
+        }
+        leave();
+        GameServer.Seat assigned = server.join(this, pairs, players);
+        session = assigned.session();
+        seat = assigned.seat();
+    }
+
+    private void leave() {
+        if (session != null) {
+            server.leave(session, seat);
+            session = null;
+            seat = -1;
+        }
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>();
+        try (OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            while (true) {
+                batch.add(outbound.take());
+                outbound.drainTo(batch);
+                for (byte[] message : batch) {
+                    if (message == CLOSE) {
+                        return;
+                    }
+                    out.write(message);
+                }
+                out.flush();
+                batch.clear();
+            }
+        } catch (IOException e) {
+            // Peer is gone; the reader notices as well
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            server.closed(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
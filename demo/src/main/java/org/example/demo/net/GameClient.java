@@ -0,0 +1,168 @@
+package org.example.demo.net;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Client side of the game protocol. Server messages are decoded on a
+// virtual thread and delivered to the listener through the dispatcher
+// (Platform::runLater for the UI, Runnable::run for load tests).
+public class GameClient implements Closeable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    public interface Listener {
+        default void joined(int sessionId, int player, int playerCount) {
+        }
+
+        default void started(long seed, int pairs, int currentPlayer) {
+        }
+
+        default void flipped(int index, int value) {
+        }
+
+        default void matched(int firstIndex, int secondIndex, int player) {
+        }
+
+        default void flippedBack() {
+        }
+
+        default void turn(int player) {
+        }
+
+        default void gameOver() {
+        }
+
+        default void acknowledged(int seq, boolean accepted) {
+        }
+
+        default void playerLeft(int player) {
+        }
+
+        default void disconnected() {
+        }
+    }
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final Listener listener;
+    private final Executor dispatcher;
+    // Not synchronized: a virtual thread blocked in a write inside a monitor would pin its carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private GameClient(Socket socket, Listener listener, Executor dispatcher) throws IOException {
+        this.socket = socket;
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        this.listener = listener;
+        this.dispatcher = dispatcher;
+    }
+
+    public static GameClient connect(String host, int port, Listener listener, Executor dispatcher) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            GameClient client = new GameClient(socket, listener, dispatcher);
+            Thread.ofVirtual().name("game-client").start(client::readLoop);
+            return client;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    public void join(int pairs, int players) throws IOException {
+        send(Protocol.JOIN, pairs, players);
+    }
+
+    // seq is echoed in the acknowledgement
+    public void flip(int seq, int index) throws IOException {
+        send(Protocol.FLIP, seq, index);
+    }
+
+    public void leave() throws IOException {
+        writeLock.lock();
+        try {
+            out.writeByte(Protocol.LEAVE);
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void send(byte type, int a, int b) throws IOException {
+        writeLock.lock();
+        try {
+            out.writeByte(type);
+            out.writeInt(a);
+            out.writeInt(b);
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void readLoop() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case Protocol.JOINED -> {
+                        int session = in.readInt();
+                        int player = in.readInt();
+                        int players = in.readInt();
+                        dispatcher.execute(() -> listener.joined(session, player, players));
+                    }
+                    case Protocol.STARTED -> {
+                        long seed = in.readLong();
+                        int pairs = in.readInt();
+                        int current = in.readInt();
+                        dispatcher.execute(() -> listener.started(seed, pairs, current));
+                    }
+                    case Protocol.FLIPPED -> {
+                        int index = in.readInt();
+                        int value = in.readInt();
+                        dispatcher.execute(() -> listener.flipped(index, value));
+                    }
+                    case Protocol.MATCHED -> {
+                        int first = in.readInt();
+                        int second = in.readInt();
+                        int player = in.readInt();
+                        dispatcher.execute(() -> listener.matched(first, second, player));
+                    }
+                    case Protocol.FLIP_BACK -> dispatcher.execute(listener::flippedBack);
+                    case Protocol.TURN -> {
+                        int player = in.readInt();
+                        dispatcher.execute(() -> listener.turn(player));
+                    }
+                    case Protocol.GAME_OVER -> dispatcher.execute(listener::gameOver);
+                    case Protocol.ACK -> {
+                        int seq = in.readInt();
+                        boolean accepted = in.readByte() != 0;
+                        dispatcher.execute(() -> listener.acknowledged(seq, accepted));
+                    }
+                    case Protocol.PLAYER_LEFT -> {
+                        int player = in.readInt();
+                        dispatcher.execute(() -> listener.playerLeft(player));
+                    }
+                    default -> throw new IOException("Unknown message type " + type);
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed by either side
+        } finally {
+            dispatcher.execute(listener::disconnected);
+        }
+    }
+}
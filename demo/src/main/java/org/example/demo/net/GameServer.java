@@ -0,0 +1,124 @@
+package org.example.demo.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Headless multiplayer server. Every connection gets virtual threads for
+// reading and writing; every game gets a GameSession that owns its state.
+// Clients that ask for the same board size and player count are seated
+// together in arrival order.
+//
+// Usage: GameServer [port] [flipBackMillis]
+public class GameServer implements Closeable {
+    public static final int DEFAULT_PORT = 47_000;
+    public static final long DEFAULT_FLIP_BACK_MILLIS = 1000;
+
+    record Seat(GameSession session, int seat) {
+    }
+
+    private final ServerSocket serverSocket;
+    private final long flipBackMillis;
+    private final Set<ClientConnection> connections = ConcurrentHashMap.newKeySet();
+
+    // Sessions still waiting for players, keyed by (pairs, players); guarded by this
+    private final Map<Long, GameSession> filling = new HashMap<>();
+    private final Map<Long, Integer> filled = new HashMap<>();
+    private int nextSessionId = 1;
+
+    public GameServer(int port, long flipBackMillis) throws IOException {
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.bind(new InetSocketAddress(port), 1024);
+        this.flipBackMillis = flipBackMillis;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void start() {
+        Thread.ofVirtual().name("game-server").start(this::acceptLoop);
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                ClientConnection connection = new ClientConnection(this, socket);
+                connections.add(connection);
+                Thread.ofVirtual().name("client-reader").start(connection::run);
+            } catch (SocketException e) {
+                // Server socket closed
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    synchronized Seat join(ClientConnection connection, int pairs, int players) {
+        long key = key(pairs, players);
+        GameSession session = filling.get(key);
+        int seat = filled.getOrDefault(key, 0);
+        if (session == null) {
+            session = new GameSession(nextSessionId++, pairs, players, flipBackMillis);
+            seat = 0;
+        }
+        if (seat + 1 == players) {
+            filling.remove(key);
+            filled.remove(key);
+        } else {
+            filling.put(key, session);
+            filled.put(key, seat + 1);
+        }
+        session.add(connection, seat);
+        return new Seat(session, seat);
+    }
+
+    // A session that is still waiting for players comes off the waiting list
+    // before its member leaves, so nobody else is seated into it; it then
+    // ends for the members it already has
+    synchronized void leave(GameSession session, int seat) {
+        long key = key(session.getPairs(), session.getPlayerCount());
+        if (filling.remove(key, session)) {
+            filled.remove(key);
+        }
+        session.leave(seat);
+    }
+
+    private static long key(int pairs, int players) {
+        return (long) pairs << 32 | players;
+    }
+
+    void closed(ClientConnection connection) {
+        connections.remove(connection);
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (ClientConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        long flipBackMillis = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_FLIP_BACK_MILLIS;
+        GameServer server = new GameServer(port, flipBackMillis);
+        server.start();
+        System.out.println("Memory game server listening on port " + server.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,180 @@
+package org.example.demo.net;
+
+import org.example.demo.engine.CardDeck;
+import org.example.demo.engine.GameEngine;
+import org.example.demo.engine.GameListener;
+import org.example.demo.engine.GameScheduler;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// One hosted game. All of its state is owned by a single thread that runs
+// the queued commands in order, so sessions never share locks with each
+// other and the engine needs none. Events are encoded once and handed to
+// every member's outbound queue.
+final class GameSession {
+    private final int id;
+    private final int pairs;
+    private final ClientConnection[] members;
+    private final long flipBackMillis;
+    private final GameEngine engine = new GameEngine();
+    private final BlockingQueue<Runnable> commands = new LinkedBlockingQueue<>();
+    private final GameScheduler scheduler = new GameScheduler(commands::add);
+
+    // Only touched by the session thread
+    private int joined;
+    private int connected;
+    private boolean started;
+    private boolean abandoned; // a member left before it was full
+    private boolean closed;
+
+    GameSession(int id, int pairs, int playerCount, long flipBackMillis) {
+        this.id = id;
+        this.pairs = pairs;
+        this.members = new ClientConnection[playerCount];
+        this.flipBackMillis = flipBackMillis;
+        engine.addListener(new Broadcaster());
+        Thread.ofVirtual().name("session-" + id).start(this::run);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    int getPairs() {
+        return pairs;
+    }
+
+    int getPlayerCount() {
+        return members.length;
+    }
+
+    void submit(Runnable command) {
+        commands.add(command);
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                commands.take().run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Called once per seat, in seat order; the game starts with the last one
+    void add(ClientConnection connection, int seat) {
+        submit(() -> {
+            members[seat] = connection;
+            joined++;
+            connected++;
+            connection.send(Protocol.message(Protocol.JOINED, id, seat, members.length));
+            if (joined == members.length) {
+                start();
+            }
+        });
+    }
+
+    private void start() {
+        if (connected < members.length) {
+            // Somebody left while the session was filling up
+            for (int seat = 0; seat < members.length; seat++) {
+                if (members[seat] == null) {
+                    broadcast(Protocol.message(Protocol.PLAYER_LEFT, seat));
+                }
+            }
+            broadcast(Protocol.message(Protocol.GAME_OVER));
+            closed = connected == 0;
+            return;
+        }
+        long seed = CardDeck.newSeed();
+        engine.setPlayerCount(members.length);
+        engine.setCurrentPlayerIndex(0);
+        engine.initialize(CardDeck.deal(pairs, seed));
+        started = true;
+        broadcast(Protocol.started(seed, pairs, 0));
+    }
+
+    void flip(ClientConnection connection, int seat, int seq, int index) {
+        submit(() -> {
+            boolean accepted = started && !closed && seat == engine.getCurrentPlayerIndex()
+                    && engine.flipCard(index);
+            connection.send(Protocol.ack(seq, accepted));
+            if (accepted && engine.isWaitingForFlipBack()) {
+                if (flipBackMillis <= 0) {
+                    flipBack();
+                } else {
+                    scheduler.schedule(this::flipBack, flipBackMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        });
+    }
+
+    private void flipBack() {
+        if (!closed) {
+            engine.flipCardsBack();
+            broadcast(Protocol.message(Protocol.FLIP_BACK));
+        }
+    }
+
+    void leave(int seat) {
+        submit(() -> {
+            if (members[seat] == null) {
+                return;
+            }
+            members[seat] = null;
+            connected--;
+            if (started && !engine.isGameOver()) {
+                // A game cannot go on with an empty seat
+                broadcast(Protocol.message(Protocol.PLAYER_LEFT, seat));
+                broadcast(Protocol.message(Protocol.GAME_OVER));
+                started = false;
+            } else if (!started && !abandoned && joined < members.length) {
+                // The server no longer seats anybody here (GameServer.leave)
+                abandoned = true;
+                broadcast(Protocol.message(Protocol.PLAYER_LEFT, seat));
+                broadcast(Protocol.message(Protocol.GAME_OVER));
+            }
+            if (connected == 0 && (joined == members.length || abandoned)) {
+                closed = true;
+            }
+        });
+    }
+
+    private void broadcast(byte[] message) {
+        for (ClientConnection member : members) {
+            if (member != null) {
+                member.send(message);
+            }
+        }
+    }
+
+    // Turns engine events into protocol messages
+    private class Broadcaster implements GameListener {
+        @Override
+        public void cardFlipped(int index, boolean flipped) {
+            if (flipped) {
+                broadcast(Protocol.message(Protocol.FLIPPED, index, engine.getValue(index)));
+            }
+        }
+
+        @Override
+        public void cardsMatched(int firstIndex, int secondIndex, int playerIndex) {
+            broadcast(Protocol.message(Protocol.MATCHED, firstIndex, secondIndex, playerIndex));
+        }
+
+        @Override
+        public void currentPlayerChanged(int playerIndex) {
+            if (started) {
+                broadcast(Protocol.message(Protocol.TURN, playerIndex));
+            }
+        }
+
+        @Override
+        public void gameOver() {
+            broadcast(Protocol.message(Protocol.GAME_OVER));
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.example.demo.net;
+
+import org.example.demo.sim.CardMemory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Plays many games against a GameServer with simulated clients and reports
+// the latency from sending a flip until its acknowledgement arrives.
+// Without a host an in-process server on a free port is used.
+//
+// Clients can end up waiting for a game that nobody else will join, for
+// example when clients * gamesPerClient is not a multiple of
+// playersPerGame. Once every client still playing is such a client, they
+// are disconnected and counted as done.
+//
+// Usage: LoadTest [clients] [pairs] [playersPerGame] [gamesPerClient] [host:port]
+public class LoadTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        GameServer server = null;
+        String host = "localhost";
+        int port;
+        if (args.length > 4) {
+            String[] address = args[4].split(":");
+            host = address[0];
+            port = Integer.parseInt(address[1]);
+        } else {
+            // No flip back delay, so the test measures the server and not the timer
+            server = new GameServer(0, 0);
+            server.start();
+            port = server.getPort();
+        }
+
+        CountDownLatch done = new CountDownLatch(clients);
+        List<SimulatedClient> simulated = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            SimulatedClient client = new SimulatedClient(games, i, done);
+            client.connect(host, port, pairs, players);
+            simulated.add(client);
+        }
+        long deadline = start + TimeUnit.MINUTES.toNanos(10);
+        boolean strandedBefore = false;
+        int released = 0;
+        while (!done.await(200, TimeUnit.MILLISECONDS)) {
+            // Checked twice in a row, as the flags are read one client at a time
+            boolean stranded = isStranded(simulated, players);
+            if (stranded && strandedBefore) {
+                for (SimulatedClient client : simulated) {
+                    if (!client.finished) {
+                        client.close();
+                        released++;
+                    }
+                }
+            }
+            strandedBefore = stranded;
+            if (System.nanoTime() > deadline) {
+                System.out.println("Timed out, " + done.getCount() + " clients still playing");
+                break;
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        if (released > 0) {
+            System.out.println(released + " clients were left waiting for a game and disconnected");
+        }
+
+        int total = 0;
+        int finishedGames = 0;
+        for (SimulatedClient client : simulated) {
+            total += client.latencyCount;
+            finishedGames += client.finishedGames;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (SimulatedClient client : simulated) {
+            System.arraycopy(client.latencies, 0, latencies, offset, client.latencyCount);
+            offset += client.latencyCount;
+        }
+        Arrays.sort(latencies);
+
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%d clients, %d games finished (seat count), %d moves in %.2f s (%.0f moves/s)%n",
+                clients, finishedGames, total, seconds, total / seconds);
+        System.out.printf("move latency us: p50 %.0f  p90 %.0f  p99 %.0f  p99.9 %.0f  max %.0f%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), total == 0 ? 0.0 : latencies[total - 1] / 1e3);
+
+        for (SimulatedClient client : simulated) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    // True if every client that is not done waits for a game that cannot fill
+    private static boolean isStranded(List<SimulatedClient> clients, int playersPerGame) {
+        int waiting = 0;
+        for (SimulatedClient client : clients) {
+            if (client.finished) {
+                continue;
+            }
+            if (!client.waiting) {
+                return false;
+            }
+            waiting++;
+        }
+        return waiting > 0 && waiting < playersPerGame;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e3;
+    }
+
+    // Plays with perfect memory; all callbacks run on the client's reader thread
+    private static final class SimulatedClient implements GameClient.Listener {
+        private final CardMemory memory = new CardMemory();
+        private final SplittableRandom random;
+        private final CountDownLatch done;
+        private GameClient client;
+        private int pairs;
+        private int players;
+        private int gamesLeft;
+
+        private int me = -1;
+        private int current = -1;
+        private int openFirst = -1;
+        private int openCount;
+        private boolean playing;
+        private boolean pending;
+        // Read by the main thread to find clients that cannot get a game
+        private volatile boolean waiting;
+        private volatile boolean finished;
+        private int seq;
+        private long sentNanos;
+
+        private long[] latencies = new long[256];
+        private int latencyCount;
+        private int finishedGames;
+
+        SimulatedClient(int games, long seed, CountDownLatch done) {
+            this.gamesLeft = games;
+            this.random = new SplittableRandom(seed);
+            this.done = done;
+        }
+
+        void connect(String host, int port, int pairs, int players) throws IOException {
+            this.pairs = pairs;
+            this.players = players;
+            client = GameClient.connect(host, port, this, Runnable::run);
+            waiting = true;
+            client.join(pairs, players);
+        }
+
+        @Override
+        public void joined(int sessionId, int player, int playerCount) {
+            me = player;
+        }
+
+        @Override
+        public void started(long seed, int pairs, int currentPlayer) {
+            memory.reset(2 * pairs);
+            current = currentPlayer;
+            openFirst = -1;
+            openCount = 0;
+            playing = true;
+            waiting = false;
+            maybeMove();
+        }
+
+        @Override
+        public void flipped(int index, int value) {
+            memory.remember(index, value);
+            if (openCount++ == 0) {
+                openFirst = index;
+            }
+        }
+
+        @Override
+        public void matched(int firstIndex, int secondIndex, int player) {
+            memory.matched(firstIndex, secondIndex);
+            openFirst = -1;
+            openCount = 0;
+            maybeMove();
+        }
+
+        @Override
+        public void flippedBack() {
+            openFirst = -1;
+            openCount = 0;
+            maybeMove();
+        }
+
+        @Override
+        public void turn(int player) {
+            current = player;
+        }
+
+        @Override
+        public void acknowledged(int seq, boolean accepted) {
+            long latency = System.nanoTime() - sentNanos;
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencyCount * 2);
+            }
+            latencies[latencyCount++] = latency;
+            pending = false;
+            maybeMove();
+        }
+
+        @Override
+        public void gameOver() {
+            playing = false;
+            finishedGames++;
+            if (--gamesLeft > 0) {
+                try {
+                    waiting = true;
+                    client.join(pairs, players);
+                    return;
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            finish();
+        }
+
+        @Override
+        public void disconnected() {
+            finish();
+        }
+
+        private void finish() {
+            if (!finished) {
+                finished = true;
+                done.countDown();
+            }
+        }
+
+        private void maybeMove() {
+            if (!playing || pending || current != me || openCount >= 2) {
+                return;
+            }
+            int index;
+            if (openCount == 0) {
+                index = memory.knownPair();
+                if (index < 0) {
+                    index = memory.randomUnseen(random, -1);
+                }
+                if (index < 0) {
+                    index = memory.randomUnmatched(random, -1);
+                }
+            } else {
+                index = memory.partnerOf(openFirst, memory.valueAt(openFirst));
+                if (index < 0) {
+                    index = memory.randomUnseen(random, openFirst);
+                }
+                if (index < 0) {
+                    index = memory.randomUnmatched(random, openFirst);
+                }
+            }
+            if (index < 0) {
+                return;
+            }
+            pending = true;
+            sentNanos = System.nanoTime();
+            try {
+                client.flip(seq++, index);
+            } catch (IOException e) {
+                e.printStackTrace();
+                finish();
+            }
+        }
+
+        void close() throws IOException {
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.demo.net;
+
+import java.nio.ByteBuffer;
+
+// Binary protocol between GameServer and GameClient. Every message is one
+// type byte followed by fixed big-endian fields, so no length prefix is
+// needed. Card values are sent when a card is turned over; STARTED also
+// carries the deal seed so a client can mirror the game with a local engine.
+final class Protocol {
+    // Client -> server
+    static final byte JOIN = 1;         // pairs:int, players:int
+    static final byte FLIP = 2;         // seq:int, index:int
+    static final byte LEAVE = 3;
+
+    // Server -> client
+    static final byte JOINED = 10;      // session:int, player:int, players:int
+    static final byte STARTED = 11;     // seed:long, pairs:int, currentPlayer:int
+    static final byte FLIPPED = 12;     // index:int, value:int
+    static final byte MATCHED = 13;     // first:int, second:int, player:int
+    static final byte FLIP_BACK = 14;   // the open cards of a missed turn are turned over
+    static final byte TURN = 15;        // player:int
+    static final byte GAME_OVER = 16;
+    static final byte ACK = 17;         // seq:int, accepted:byte
+    static final byte PLAYER_LEFT = 18; // player:int
+
+    static final int MAX_PAIRS = 1 << 20;
+    static final int MAX_PLAYERS = 8;
+
+    private Protocol() {
+    }
+
+    static byte[] message(byte type) {
+        return new byte[] { type };
+    }
+
+    static byte[] message(byte type, int a) {
+        return ByteBuffer.allocate(5).put(type).putInt(a).array();
+    }
+
+    static byte[] message(byte type, int a, int b) {
+        return ByteBuffer.allocate(9).put(type).putInt(a).putInt(b).array();
+    }
+
+    static byte[] message(byte type, int a, int b, int c) {
+        return ByteBuffer.allocate(13).put(type).putInt(a).putInt(b).putInt(c).array();
+    }
+
+    static byte[] started(long seed, int pairs, int currentPlayer) {
+        return ByteBuffer.allocate(17).put(STARTED).putLong(seed).putInt(pairs).putInt(currentPlayer).array();
+    }
+
+    static byte[] ack(int seq, boolean accepted) {
+        return ByteBuffer.allocate(6).put(ACK).putInt(seq).put((byte) (accepted ? 1 : 0)).array();
+    }
+}
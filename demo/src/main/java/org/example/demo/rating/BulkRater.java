@@ -0,0 +1,153 @@
+package org.example.demo.rating;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Recomputes every rating from scratch by replaying the whole history.
+//
+// Elo is sequential per player, but two games without a common player do
+// not affect each other. Each game is put into round 1 + (last round of
+// any of its players), so a round only holds games with disjoint players
+// whose earlier games are all in earlier rounds. Rounds run in order, the
+// games inside a round in parallel; every rating is written by one game per
+// round, so the result is bit for bit the same as a sequential replay.
+public final class BulkRater {
+    private static final int PARALLEL_THRESHOLD = 1024;
+
+    private BulkRater() {
+    }
+
+    // Final ratings of all players in the history, in player number order
+    public static PlayerRating[] recompute(RatingHistory history, RatingParameters parameters) {
+        if (history.gameCount() < PARALLEL_THRESHOLD || Runtime.getRuntime().availableProcessors() == 1) {
+            return recomputeSequential(history, parameters);
+        }
+        return recomputeInRounds(history, parameters);
+    }
+
+    static PlayerRating[] recomputeInRounds(RatingHistory history, RatingParameters parameters) {
+        int players = history.playerCount();
+        double[] ratings = new double[players];
+        int[] games = new int[players];
+        Arrays.fill(ratings, parameters.initialRating());
+
+        int[][] rounds = schedule(history);
+        for (int[] round : rounds) {
+            IntStream stream = IntStream.of(round);
+            if (round.length >= PARALLEL_THRESHOLD) {
+                stream = stream.parallel();
+            }
+            stream.forEach(game -> rate(history, game, ratings, games, parameters));
+        }
+        return table(history, ratings, games);
+    }
+
+    // The same replay one game after another, for comparison
+    public static PlayerRating[] recomputeSequential(RatingHistory history, RatingParameters parameters) {
+        int players = history.playerCount();
+        double[] ratings = new double[players];
+        int[] games = new int[players];
+        Arrays.fill(ratings, parameters.initialRating());
+        for (int game = 0; game < history.gameCount(); game++) {
+            rate(history, game, ratings, games, parameters);
+        }
+        return table(history, ratings, games);
+    }
+
+    // Games grouped by round, each round in history order
+    static int[][] schedule(RatingHistory history) {
+        int gameCount = history.gameCount();
+        int[] lastRound = new int[history.playerCount()];
+        int[] roundOf = new int[gameCount];
+        int roundCount = 0;
+        for (int game = 0; game < gameCount; game++) {
+            int round = 0;
+            for (int seat = history.seatsStart(game); seat < history.seatsEnd(game); seat++) {
+                round = Math.max(round, lastRound[history.player(seat)]);
+            }
+            roundOf[game] = round;
+            round++;
+            for (int seat = history.seatsStart(game); seat < history.seatsEnd(game); seat++) {
+                lastRound[history.player(seat)] = round;
+            }
+            roundCount = Math.max(roundCount, round);
+        }
+
+        // Counting sort of the games by round
+        int[] sizes = new int[roundCount];
+        for (int game = 0; game < gameCount; game++) {
+            sizes[roundOf[game]]++;
+        }
+        int[][] rounds = new int[roundCount][];
+        for (int round = 0; round < roundCount; round++) {
+            rounds[round] = new int[sizes[round]];
+            sizes[round] = 0;
+        }
+        for (int game = 0; game < gameCount; game++) {
+            int round = roundOf[game];
+            rounds[round][sizes[round]++] = game;
+        }
+        return rounds;
+    }
+
+    private static void rate(RatingHistory history, int game, double[] ratings, int[] games,
+                             RatingParameters parameters) {
+        int start = history.seatsStart(game);
+        int count = history.seatsEnd(game) - start;
+        if (count < 2) {
+            return; // solo games are not rated
+        }
+        double[] before = new double[count];
+        int[] pairs = new int[count];
+        for (int i = 0; i < count; i++) {
+            before[i] = ratings[history.player(start + i)];
+            pairs[i] = history.pairs(start + i);
+        }
+        double[] changes = EloRating.changes(before, pairs, parameters);
+        for (int i = 0; i < count; i++) {
+            int player = history.player(start + i);
+            ratings[player] = before[i] + changes[i];
+            games[player]++;
+        }
+    }
+
+    private static PlayerRating[] table(RatingHistory history, double[] ratings, int[] games) {
+        PlayerRating[] table = new PlayerRating[ratings.length];
+        for (int player = 0; player < table.length; player++) {
+            table[player] = new PlayerRating(history.name(player), ratings[player], games[player]);
+        }
+        return table;
+    }
+
+    // Usage: BulkRater [games] [players]. Replays a random history both ways
+    // and checks that the results are identical.
+    public static void main(String[] args) {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int playerCount = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        SplittableRandom random = new SplittableRandom(42);
+        RatingHistory history = new RatingHistory();
+        for (int game = 0; game < gameCount; game++) {
+            int seats = 2 + random.nextInt(3);
+            for (int seat = 0; seat < seats; seat++) {
+                history.addSeat(game, "Player " + random.nextInt(playerCount), random.nextInt(9));
+            }
+        }
+        RatingParameters parameters = RatingParameters.configured();
+
+        int rounds = schedule(history).length;
+        long start = System.nanoTime();
+        PlayerRating[] parallel = recomputeInRounds(history, parameters);
+        long parallelMillis = (System.nanoTime() - start) / 1_000_000;
+
+        start = System.nanoTime();
+        PlayerRating[] sequential = recomputeSequential(history, parameters);
+        long sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%d games, %d players, %d rounds (%.0f games per round)%n",
+                gameCount, history.playerCount(), rounds, (double) gameCount / rounds);
+        System.out.printf("rounds in parallel: %d ms, sequential: %d ms, identical: %b%n",
+                parallelMillis, sequentialMillis, Arrays.equals(parallel, sequential));
+    }
+}
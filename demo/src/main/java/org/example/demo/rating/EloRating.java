@@ -0,0 +1,39 @@
+package org.example.demo.rating;
+
+// Multiplayer Elo. A game of n players counts as n-1 duels per player: more
+// pairs than an opponent is a win (1), the same number a draw (0.5). Each
+// duel moves the rating by K/(n-1) times the difference between the actual
+// and the expected score, so a rating changes by at most K per game,
+// however many players took part, and the changes of a game sum to zero.
+public final class EloRating {
+
+    private EloRating() {
+    }
+
+    // Expected duel score of a player rated `rating` against `opponent`
+    public static double expectedScore(double rating, double opponent, RatingParameters parameters) {
+        return 1 / (1 + Math.pow(10, (opponent - rating) / parameters.scale()));
+    }
+
+    // Rating changes for one game, in seat order. Games with fewer than two
+    // players are not rated and return zeros.
+    public static double[] changes(double[] ratings, int[] pairs, RatingParameters parameters) {
+        int players = ratings.length;
+        double[] changes = new double[players];
+        if (players < 2) {
+            return changes;
+        }
+        double weight = parameters.kFactor() / (players - 1);
+        for (int i = 0; i < players; i++) {
+            double sum = 0;
+            for (int j = 0; j < players; j++) {
+                if (i != j) {
+                    double actual = pairs[i] > pairs[j] ? 1 : pairs[i] == pairs[j] ? 0.5 : 0;
+                    sum += actual - expectedScore(ratings[i], ratings[j], parameters);
+                }
+            }
+            changes[i] = weight * sum;
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.demo.rating;
+
+// A player's current rating and the number of rated (multiplayer) games
+public record PlayerRating(String name, double rating, int games) {
+
+    // Rating of a player before their first rated game
+    public static PlayerRating initial(String name, RatingParameters parameters) {
+        return new PlayerRating(name, parameters.initialRating(), 0);
+    }
+
+    public PlayerRating plus(double change) {
+        return new PlayerRating(name, rating + change, games + 1);
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.demo.rating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Games in the order they were played, in flat arrays: names are mapped to
+// player numbers once, and game g owns seats gameStart[g] .. gameStart[g+1].
+// A few million games take a few tens of megabytes and no objects per game.
+public final class RatingHistory {
+    private final Map<String, Integer> playerNumbers = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int[] gameStart = new int[1024];
+    private int[] seatPlayer = new int[4096];
+    private int[] seatPairs = new int[4096];
+    private int gameCount;
+    private int seatCount;
+    private long lastGameKey;
+
+    // Seats must arrive grouped by game, in playing order; a new gameKey
+    // starts the next game
+    public void addSeat(long gameKey, String name, int pairs) {
+        if (gameCount == 0 || gameKey != lastGameKey) {
+            if (gameCount + 1 == gameStart.length) {
+                gameStart = Arrays.copyOf(gameStart, gameStart.length * 2);
+            }
+            gameStart[gameCount++] = seatCount;
+            lastGameKey = gameKey;
+        }
+        if (seatCount == seatPlayer.length) {
+            seatPlayer = Arrays.copyOf(seatPlayer, seatCount * 2);
+            seatPairs = Arrays.copyOf(seatPairs, seatCount * 2);
+        }
+        Integer number = playerNumbers.get(name);
+        if (number == null) {
+            number = names.size();
+            playerNumbers.put(name, number);
+            names.add(name);
+        }
+        seatPlayer[seatCount] = number;
+        seatPairs[seatCount] = pairs;
+        seatCount++;
+        gameStart[gameCount] = seatCount;
+    }
+
+    public int gameCount() {
+        return gameCount;
+    }
+
+    public int playerCount() {
+        return names.size();
+    }
+
+    public String name(int player) {
+        return names.get(player);
+    }
+
+    int seatsStart(int game) {
+        return gameStart[game];
+    }
+
+    int seatsEnd(int game) {
+        return gameStart[game + 1];
+    }
+
+    int player(int seat) {
+        return seatPlayer[seat];
+    }
+
+    int pairs(int seat) {
+        return seatPairs[seat];
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.demo.rating;
+
+// Elo parameters: the rating of a new player, the largest change a single
+// opponent can cause (K) and the rating difference that means 10:1 odds.
+// Set with -Dmemory.elo.initial, -Dmemory.elo.k and -Dmemory.elo.scale;
+// after changing them, model.RecomputeRatings replays the history.
+public record RatingParameters(double initialRating, double kFactor, double scale) {
+    public static final RatingParameters DEFAULT = new RatingParameters(1500, 32, 400);
+
+    public RatingParameters {
+        if (kFactor <= 0 || scale <= 0) {
+            throw new IllegalArgumentException("K and scale must be positive: " + kFactor + ", " + scale);
+        }
+    }
+
+    public static RatingParameters configured() {
+        return new RatingParameters(
+                doubleProperty("memory.elo.initial", DEFAULT.initialRating()),
+                doubleProperty("memory.elo.k", DEFAULT.kFactor()),
+                doubleProperty("memory.elo.scale", DEFAULT.scale()));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+}
@@ -0,0 +1,57 @@
+package org.example.demo.sim;
+
+import java.util.SplittableRandom;
+
+// Memory of a computer player. Each revealed card is noticed with probability
+// recall, and only the most recent capacity cards are kept: older entries are
+// forgotten first (FIFO ring of card indices).
+public class BotMemory {
+    private final CardMemory memory = new CardMemory();
+    private final int capacity;
+    private final double recall;
+    private final SplittableRandom random;
+
+    private int[] ring = new int[0];
+    private int head;
+    private int size;
+
+    public BotMemory(int capacity, double recall, SplittableRandom random) {
+        this.capacity = capacity;
+        this.recall = recall;
+        this.random = random;
+    }
+
+    public void reset(int cardCount) {
+        memory.reset(cardCount);
+        int ringSize = Math.max(1, Math.min(capacity, cardCount));
+        if (ring.length != ringSize) {
+            ring = new int[ringSize];
+        }
+        head = 0;
+        size = 0;
+    }
+
+    public void revealed(int index, int value) {
+        if (memory.knows(index) || (recall < 1.0 && random.nextDouble() >= recall)) {
+            return;
+        }
+        if (size == ring.length) {
+            // Forget the oldest remembered card to make room
+            int oldest = ring[head];
+            head = (head + 1) % ring.length;
+            size--;
+            memory.forget(oldest);
+        }
+        ring[(head + size) % ring.length] = index;
+        size++;
+        memory.remember(index, value);
+    }
+
+    public void matched(int first, int second) {
+        memory.matched(first, second);
+    }
+
+    public CardMemory cards() {
+        return memory;
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.demo.sim;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// What one player knows about the board, stored in int arrays only:
+// - the remembered value per card index (-1 = unknown)
+// - one remembered, still unmatched index per value (-1 = none)
+// - the known partner per card index once both cards of a pair were seen
+// - the sets of unseen and of unmatched cards (swap-remove arrays for O(1) picks)
+// - a stack of cards whose partner is known
+// The arrays are reused across games of the same or a smaller size.
+public class CardMemory {
+    private int[] valueAt = new int[0];
+    private int[] indexOfValue = new int[0];
+    private int[] knownPartner = new int[0];
+
+    private int[] unseen = new int[0];
+    private int[] unseenPosition = new int[0];
+    private int unseenCount;
+
+    private int[] unmatched = new int[0];
+    private int[] unmatchedPosition = new int[0];
+    private int unmatchedCount;
+
+    private int[] knownPairs = new int[0];
+    private int knownPairCount;
+
+    public void reset(int cardCount) {
+        if (valueAt.length < cardCount) {
+            valueAt = new int[cardCount];
+            indexOfValue = new int[cardCount / 2 + 1];
+            knownPartner = new int[cardCount];
+            unseen = new int[cardCount];
+            unseenPosition = new int[cardCount];
+            unmatched = new int[cardCount];
+            unmatchedPosition = new int[cardCount];
+            knownPairs = new int[cardCount / 2 + 1];
+        }
+        Arrays.fill(valueAt, 0, cardCount, -1);
+        Arrays.fill(knownPartner, 0, cardCount, -1);
+        Arrays.fill(indexOfValue, 0, cardCount / 2 + 1, -1);
+        for (int i = 0; i < cardCount; i++) {
+            unseen[i] = i;
+            unseenPosition[i] = i;
+            unmatched[i] = i;
+            unmatchedPosition[i] = i;
+        }
+        unseenCount = cardCount;
+        unmatchedCount = cardCount;
+        knownPairCount = 0;
+    }
+
+    // Stores a revealed card; detects when its partner is already known
+    public void remember(int index, int value) {
+        if (valueAt[index] >= 0 || unmatchedPosition[index] < 0) {
+            return;
+        }
+        valueAt[index] = value;
+        removeUnseen(index);
+
+        int other = indexOfValue[value];
+        if (other < 0 || other == index) {
+            indexOfValue[value] = index;
+        } else {
+            indexOfValue[value] = -1;
+            knownPartner[other] = index;
+            knownPartner[index] = other;
+            if (knownPairCount == knownPairs.length) {
+                knownPairs = Arrays.copyOf(knownPairs, Math.max(16, knownPairCount * 2));
+            }
+            knownPairs[knownPairCount++] = other;
+        }
+    }
+
+    // Drops what is known about a card, it counts as unseen again
+    public void forget(int index) {
+        int value = valueAt[index];
+        if (value < 0) {
+            return;
+        }
+        valueAt[index] = -1;
+        int partner = knownPartner[index];
+        if (partner >= 0) {
+            // The partner stays known on its own; its stack entry becomes stale
+            knownPartner[partner] = -1;
+            knownPartner[index] = -1;
+            indexOfValue[value] = partner;
+        } else if (indexOfValue[value] == index) {
+            indexOfValue[value] = -1;
+        }
+        if (unmatchedPosition[index] >= 0) {
+            unseenPosition[index] = unseenCount;
+            unseen[unseenCount++] = index;
+        }
+    }
+
+    public void matched(int first, int second) {
+        removeMatched(first);
+        removeMatched(second);
+    }
+
+    // Takes a single card off the board (used to set up a position mid-game)
+    public void removeCard(int index) {
+        removeMatched(index);
+    }
+
+    public boolean knows(int index) {
+        return valueAt[index] >= 0;
+    }
+
+    public int valueAt(int index) {
+        return valueAt[index];
+    }
+
+    // One card of a pair whose positions are both known, or -1.
+    // The partner can then be found with partnerOf().
+    public int knownPair() {
+        while (knownPairCount > 0) {
+            int first = knownPairs[knownPairCount - 1];
+            if (knownPartner[first] >= 0 && isUnmatched(first)) {
+                return first;
+            }
+            knownPairCount--;
+        }
+        return -1;
+    }
+
+    // Remembered partner of a card with the given value, or -1
+    public int partnerOf(int index, int value) {
+        if (knownPartner[index] >= 0) {
+            return knownPartner[index];
+        }
+        int other = indexOfValue[value];
+        if (other >= 0 && other != index && isUnmatched(other)) {
+            return other;
+        }
+        return -1;
+    }
+
+    public int unseenCount() {
+        return unseenCount;
+    }
+
+    public int unmatchedCount() {
+        return unmatchedCount;
+    }
+
+    // Random card that has not been seen, or -1 if every card is known
+    public int randomUnseen(SplittableRandom random, int exclude) {
+        int available = unseenCount;
+        if (exclude >= 0 && unseenPosition[exclude] >= 0) {
+            available--;
+        }
+        if (available <= 0) {
+            return -1;
+        }
+        int pick = unseen[random.nextInt(unseenCount)];
+        while (pick == exclude) {
+            pick = unseen[random.nextInt(unseenCount)];
+        }
+        return pick;
+    }
+
+    // Random card that is still on the board, or -1
+    public int randomUnmatched(SplittableRandom random, int exclude) {
+        int available = unmatchedCount - (exclude >= 0 && isUnmatched(exclude) ? 1 : 0);
+        if (available <= 0) {
+            return -1;
+        }
+        int pick = unmatched[random.nextInt(unmatchedCount)];
+        while (pick == exclude) {
+            pick = unmatched[random.nextInt(unmatchedCount)];
+        }
+        return pick;
+    }
+
+    // Known card without a known partner, or -1 (used for "safe" second flips)
+    public int anyKnownSingle(int exclude) {
+        for (int i = 0; i < unmatchedCount; i++) {
+            int index = unmatched[i];
+            if (index != exclude && knows(index)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isUnmatched(int index) {
+        return unmatchedPosition[index] >= 0;
+    }
+
+    private void removeUnseen(int index) {
+        int position = unseenPosition[index];
+        if (position < 0) {
+            return;
+        }
+        int last = unseen[--unseenCount];
+        unseen[position] = last;
+        unseenPosition[last] = position;
+        unseenPosition[index] = -1;
+    }
+
+    private void removeMatched(int index) {
+        removeUnseen(index);
+        int position = unmatchedPosition[index];
+        if (position < 0) {
+            return;
+        }
+        int last = unmatched[--unmatchedCount];
+        unmatched[position] = last;
+        unmatchedPosition[last] = position;
+        unmatchedPosition[index] = -1;
+
+        int value = valueAt[index];
+        if (value >= 0 && indexOfValue[value] == index) {
+            indexOfValue[value] = -1;
+        }
+        valueAt[index] = -1;
+        knownPartner[index] = -1;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.demo.sim;
+
+import java.util.SplittableRandom;
+
+// Plays known pairs first, otherwise explores unseen cards. Each revealed card
+// is remembered with the given probability: 1.0 is perfect memory, 0.0 plays
+// completely at random.
+public class MemoryStrategy implements Strategy {
+    private final CardMemory memory = new CardMemory();
+    private SplittableRandom random;
+    private final double recall;
+
+    public MemoryStrategy(double recall, long seed) {
+        this.recall = recall;
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void reset(int cardCount) {
+        memory.reset(cardCount);
+    }
+
+    @Override
+    public void reseed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public void revealed(int index, int value) {
+        if (recall >= 1.0 || (recall > 0.0 && random.nextDouble() < recall)) {
+            memory.remember(index, value);
+        }
+    }
+
+    @Override
+    public void matched(int first, int second) {
+        memory.matched(first, second);
+    }
+
+    @Override
+    public int chooseFirst() {
+        int known = memory.knownPair();
+        if (known >= 0) {
+            return known;
+        }
+        int unseen = memory.randomUnseen(random, -1);
+        return unseen >= 0 ? unseen : memory.randomUnmatched(random, -1);
+    }
+
+    @Override
+    public int chooseSecond(int first, int firstValue) {
+        int partner = memory.partnerOf(first, firstValue);
+        if (partner >= 0) {
+            return partner;
+        }
+        int unseen = memory.randomUnseen(random, first);
+        return unseen >= 0 ? unseen : memory.randomUnmatched(random, first);
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.demo.sim;
+
+import org.example.demo.engine.GameEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Computer opponent. It remembers cards through a BotMemory and decides
+// open choices by Monte Carlo search: the unknown cards are dealt at random
+// (consistent with what the bot knows), the rest of the game is played out
+// greedily for every candidate move, and the move with the best average pair
+// difference wins. Search runs on the common fork-join pool and stops at a
+// fixed deadline, so a move is always ready within the latency budget.
+//
+// reset/revealed/matched/chooseCard must be called from the thread that owns
+// the game; only the search itself runs elsewhere.
+public class MonteCarloBot {
+
+    public enum Difficulty {
+        EASY(4, 0.6, 0),
+        MEDIUM(12, 0.85, 500),
+        HARD(Integer.MAX_VALUE, 1.0, 20_000);
+
+        private final int memoryCapacity;
+        private final double recall;
+        private final int samples;
+
+        Difficulty(int memoryCapacity, double recall, int samples) {
+            this.memoryCapacity = memoryCapacity;
+            this.recall = recall;
+            this.samples = samples;
+        }
+    }
+
+    // Candidate moves compared by the search
+    private static final int EXPLORE = 0; // flip a card nobody knows
+    private static final int SAFE = 1;    // flip a known card, reveals nothing new
+
+    private final Difficulty difficulty;
+    private final SplittableRandom random;
+    private final BotMemory memory;
+
+    public MonteCarloBot(Difficulty difficulty, long seed) {
+        this.difficulty = difficulty;
+        this.random = new SplittableRandom(seed);
+        this.memory = new BotMemory(difficulty.memoryCapacity, difficulty.recall, random.split());
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public void reset(int cardCount) {
+        memory.reset(cardCount);
+    }
+
+    public void revealed(int index, int value) {
+        memory.revealed(index, value);
+    }
+
+    public void matched(int first, int second) {
+        memory.matched(first, second);
+    }
+
+    // Picks the next card to flip in the engine's current turn. Obvious moves
+    // are answered immediately; otherwise a snapshot of the position is
+    // searched in the background for at most budgetMillis.
+    public CompletableFuture<Integer> chooseCard(GameEngine engine, long budgetMillis) {
+        CardMemory cards = memory.cards();
+        int first = engine.getFirstCardIndex();
+
+        if (first < 0) {
+            int known = cards.knownPair();
+            if (known >= 0 && !engine.isMatched(known)) {
+                return CompletableFuture.completedFuture(known);
+            }
+        } else {
+            int partner = cards.partnerOf(first, engine.getValue(first));
+            if (partner >= 0) {
+                return CompletableFuture.completedFuture(partner);
+            }
+        }
+
+        int explore = cards.randomUnseen(random, first);
+        int safe = cards.anyKnownSingle(first);
+        int fallback = explore >= 0 ? explore : cards.randomUnmatched(random, first);
+        if (difficulty.samples == 0 || explore < 0 || safe < 0) {
+            return CompletableFuture.completedFuture(fallback);
+        }
+
+        Position position = Position.of(engine, cards, first);
+        int[] candidates = { explore, safe };
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        int tasks = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int samplesPerTask = Math.max(1, difficulty.samples / tasks);
+
+        List<CompletableFuture<double[]>> futures = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            long seed = random.nextLong();
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> new Playout(position, seed).evaluate(candidates, samplesPerTask, deadline)));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    double[] totals = new double[candidates.length];
+                    for (CompletableFuture<double[]> future : futures) {
+                        double[] result = future.join();
+                        for (int option = 0; option < totals.length; option++) {
+                            totals[option] += result[option];
+                        }
+                    }
+                    return totals[SAFE] > totals[EXPLORE] ? candidates[SAFE] : candidates[EXPLORE];
+                })
+                .completeOnTimeout(fallback, 2 * budgetMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Immutable copy of what the bot knows, handed to the search threads
+    private record Position(int cardCount, int first, int[] unmatched, int[] knownValue, int[] unknownValues) {
+
+        static Position of(GameEngine engine, CardMemory cards, int first) {
+            int cardCount = engine.getCardCount();
+            int unmatchedCount = 0;
+            int unknownCount = 0;
+            for (int i = 0; i < cardCount; i++) {
+                if (!engine.isMatched(i)) {
+                    unmatchedCount++;
+                    if (i != first && !cards.knows(i)) {
+                        unknownCount++;
+                    }
+                }
+            }
+
+            int[] unmatched = new int[unmatchedCount];
+            int[] knownValue = new int[cardCount];
+            // Which values are still on the board is public, only their places are hidden
+            int[] unknownValues = new int[unknownCount];
+            int u = 0;
+            int k = 0;
+            for (int i = 0; i < cardCount; i++) {
+                knownValue[i] = -1;
+                if (engine.isMatched(i)) {
+                    continue;
+                }
+                unmatched[u++] = i;
+                if (i == first) {
+                    knownValue[i] = engine.getValue(i);
+                } else if (cards.knows(i)) {
+                    knownValue[i] = cards.valueAt(i);
+                } else {
+                    unknownValues[k++] = engine.getValue(i);
+                }
+            }
+            return new Position(cardCount, first, unmatched, knownValue, unknownValues);
+        }
+    }
+
+    // One search thread's scratch space, reused for all of its playouts
+    private static final class Playout {
+        private final Position position;
+        private final SplittableRandom random;
+        private final CardMemory knowledge = new CardMemory();
+        private final int[] values;
+        private final int[] pool;
+
+        Playout(Position position, long seed) {
+            this.position = position;
+            this.random = new SplittableRandom(seed);
+            this.values = new int[position.cardCount()];
+            this.pool = position.unknownValues().clone();
+        }
+
+        // Sum of pair differences per candidate over the samples played
+        double[] evaluate(int[] candidates, int samples, long deadline) {
+            double[] totals = new double[candidates.length];
+            for (int sample = 0; sample < samples && System.nanoTime() < deadline; sample++) {
+                // Same random deal for every candidate keeps the comparison fair
+                long dealSeed = random.nextLong();
+                for (int option = 0; option < candidates.length; option++) {
+                    totals[option] += play(candidates[option], new SplittableRandom(dealSeed));
+                }
+            }
+            return totals;
+        }
+
+        // Plays the rest of the game after flipping the candidate card, both
+        // sides with perfect memory. Returns bot pairs minus opponent pairs.
+        private int play(int candidate, SplittableRandom deal) {
+            setUp(deal);
+            int difference = 0;
+            boolean botToMove = true;
+            int first = position.first();
+            int forced = candidate;
+
+            while (knowledge.unmatchedCount() > 0) {
+                if (first < 0) {
+                    first = forced >= 0 ? forced : chooseFirst(deal);
+                    forced = -1;
+                    knowledge.remember(first, values[first]);
+                }
+                int second = forced >= 0 ? forced : chooseSecond(first, deal);
+                forced = -1;
+                if (second < 0) {
+                    break;
+                }
+                knowledge.remember(second, values[second]);
+
+                if (values[first] == values[second]) {
+                    knowledge.matched(first, second);
+                    difference += botToMove ? 1 : -1;
+                } else {
+                    botToMove = !botToMove;
+                }
+                first = -1;
+            }
+            return difference;
+        }
+
+        private void setUp(SplittableRandom deal) {
+            int cardCount = position.cardCount();
+            knowledge.reset(cardCount);
+
+            // Shuffle the hidden values onto the unknown positions
+            for (int i = pool.length - 1; i > 0; i--) {
+                int j = deal.nextInt(i + 1);
+                int tmp = pool[i];
+                pool[i] = pool[j];
+                pool[j] = tmp;
+            }
+
+            int[] knownValue = position.knownValue();
+            for (int i = 0; i < cardCount; i++) {
+                values[i] = -1;
+            }
+            int next = 0;
+            for (int index : position.unmatched()) {
+                values[index] = knownValue[index] >= 0 ? knownValue[index] : pool[next++];
+            }
+            for (int i = 0; i < cardCount; i++) {
+                if (values[i] < 0) {
+                    knowledge.removeCard(i);
+                } else if (knownValue[i] >= 0) {
+                    knowledge.remember(i, knownValue[i]);
+                }
+            }
+        }
+
+        private int chooseFirst(SplittableRandom deal) {
+            int known = knowledge.knownPair();
+            if (known >= 0) {
+                return known;
+            }
+            int unseen = knowledge.randomUnseen(deal, -1);
+            return unseen >= 0 ? unseen : knowledge.randomUnmatched(deal, -1);
+        }
+
+        private int chooseSecond(int first, SplittableRandom deal) {
+            int partner = knowledge.partnerOf(first, values[first]);
+            if (partner >= 0) {
+                return partner;
+            }
+            int unseen = knowledge.randomUnseen(deal, first);
+            return unseen >= 0 ? unseen : knowledge.randomUnmatched(deal, first);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package org.example.demo.sim;
+
+import org.example.demo.engine.GameEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+// Exact values of the memory game under optimal play with perfect memory.
+//
+// A position is fully described by u (cards never turned over) and k (seen
+// cards whose partner is still hidden); known pairs are always taken at once
+// and cost one try each. From (u, k) the first flip goes to an unseen card:
+// - with probability k/u it is the partner of a known single -> match, (u-1, k-1)
+// - otherwise it is a new card X, and the second flip is either
+//   EXPLORE, another unseen card:
+//     1/(u-1)       X's partner         -> match, (u-2, k)
+//     k/(u-1)       a known single's    -> miss, that pair is taken next turn, (u-2, k)
+//     (u-2-k)/(u-1) another new card    -> miss, (u-2, k+2)
+//   or SAFE, a known single (k > 0)     -> miss, (u-1, k+1)
+//
+// Two tables are solved: the expected number of tries for a single player,
+// and for two players the expected pair difference for the player to move.
+// The second one is stored relative to the mover, so the same entry serves
+// either player; a miss hands the negated value over to the opponent.
+//
+// Values do not depend on the board size, so one table up to maxCards covers
+// every smaller board. Layer u only depends on layers u-1 and u-2 and is
+// solved in parallel. States are packed into flat double arrays.
+public final class OptimalSolver {
+    public static final Path DEFAULT_FILE = Path.of("memory-solver.bin");
+
+    private static final int MAGIC = 0x4D534F4C; // "MSOL"
+    private static final int VERSION = 1;
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    // Second flip after revealing a new card, one flag per state and table
+    private static final byte SOLO_SAFE = 1;
+    private static final byte VERSUS_SAFE = 2;
+
+    public enum Action {
+        MATCH_KNOWN_PAIR, // both cards of a pair are known
+        MATCH_PARTNER,    // the open card's partner is known
+        FLIP_UNSEEN,
+        FLIP_KNOWN        // second flip on a known card, reveals nothing new
+    }
+
+    // expectedTries: remaining tries for a single player after this advice,
+    // advantage: expected pair difference for the player to move
+    public record Hint(Action action, double expectedTries, double advantage) {
+    }
+
+    private final int maxCards;
+    private final int[] rowStart;
+    private final double[] tries;
+    private final double[] advantage;
+    private final byte[] safe;
+
+    private OptimalSolver(int maxCards) {
+        this.maxCards = maxCards;
+        this.rowStart = rowStarts(maxCards);
+        int size = rowStart[maxCards + 1];
+        this.tries = new double[size];
+        this.advantage = new double[size];
+        this.safe = new byte[size];
+    }
+
+    // Loads the table from file when it is big enough, otherwise solves and
+    // stores it for the next start
+    public static OptimalSolver forCards(int maxCards, Path file) {
+        if (Files.exists(file)) {
+            try {
+                OptimalSolver loaded = load(file);
+                if (loaded.maxCards >= maxCards) {
+                    return loaded;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        OptimalSolver solver = solve(maxCards);
+        try {
+            solver.save(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return solver;
+    }
+
+    public static OptimalSolver solve(int maxCards) {
+        if (maxCards < 0 || maxCards % 2 != 0) {
+            throw new IllegalArgumentException("maxCards must be even and >= 0: " + maxCards);
+        }
+        OptimalSolver solver = new OptimalSolver(maxCards);
+        for (int u = 1; u <= maxCards; u++) {
+            int unseen = u;
+            IntStream states = IntStream.rangeClosed(0, u / 2);
+            if (u / 2 >= PARALLEL_THRESHOLD) {
+                states = states.parallel();
+            }
+            states.forEach(hiddenPairs -> solver.solveState(unseen, unseen - 2 * hiddenPairs));
+        }
+        return solver;
+    }
+
+    private void solveState(int u, int k) {
+        double soloMatch = 0;
+        double versusMatch = 0;
+        if (k > 0) {
+            soloMatch = k * (1 + tries(u - 1, k - 1));
+            versusMatch = k * (1 + advantage(u - 1, k - 1));
+        }
+
+        double soloNew = 0;
+        double versusNew = 0;
+        byte flags = 0;
+        int newCards = u - k;
+        if (newCards > 0) {
+            int rest = u - 1;
+            double soloExplore = (1 + tries(u - 2, k)
+                    + k * (2 + tries(u - 2, k))
+                    + (rest - 1 - k) * (1 + tries(u - 2, k + 2))) / rest;
+            double versusExplore = (1 + advantage(u - 2, k)
+                    - k * (1 + advantage(u - 2, k))
+                    - (rest - 1 - k) * advantage(u - 2, k + 2)) / rest;
+            soloNew = soloExplore;
+            versusNew = versusExplore;
+            if (k > 0) {
+                double soloSafe = 1 + tries(u - 1, k + 1);
+                double versusSafe = -advantage(u - 1, k + 1);
+                if (soloSafe < soloExplore) {
+                    soloNew = soloSafe;
+                    flags |= SOLO_SAFE;
+                }
+                if (versusSafe > versusExplore) {
+                    versusNew = versusSafe;
+                    flags |= VERSUS_SAFE;
+                }
+            }
+        }
+
+        int index = index(u, k);
+        tries[index] = (soloMatch + newCards * soloNew) / u;
+        advantage[index] = (versusMatch + newCards * versusNew) / u;
+        safe[index] = flags;
+    }
+
+    public int getMaxCards() {
+        return maxCards;
+    }
+
+    // Expected tries to clear a fresh board of the given number of pairs
+    public double expectedTries(int pairs) {
+        return tries(2 * pairs, 0);
+    }
+
+    // Expected tries from a position without known pairs
+    public double tries(int unseen, int knownSingles) {
+        return isEmpty(unseen, knownSingles) ? 0 : tries[index(unseen, knownSingles)];
+    }
+
+    // Expected pair difference for the player to move, without known pairs
+    public double advantage(int unseen, int knownSingles) {
+        return isEmpty(unseen, knownSingles) ? 0 : advantage[index(unseen, knownSingles)];
+    }
+
+    // Also covers the unreachable states the recurrences touch with weight 0
+    private static boolean isEmpty(int unseen, int knownSingles) {
+        return unseen <= 0 || knownSingles < 0 || knownSingles > unseen;
+    }
+
+    // Best next flip for the engine's current position. Only table lookups and
+    // the engine's running counters are used, so this is O(1).
+    public Hint hint(GameEngine engine, boolean versus) {
+        if (engine.getCardCount() > maxCards) {
+            throw new IllegalArgumentException("Solver table only covers " + maxCards + " cards");
+        }
+        int unseen = engine.getUnseenCount();
+        int singles = engine.getKnownSingles();
+        int pairs = engine.getKnownPairs();
+        int first = engine.getFirstCardIndex();
+
+        if (first < 0) {
+            Action action = pairs > 0 ? Action.MATCH_KNOWN_PAIR : Action.FLIP_UNSEEN;
+            return new Hint(action, pairs + tries(unseen, singles), pairs + advantage(unseen, singles));
+        }
+        if (engine.isPairSeen(first)) {
+            return new Hint(Action.MATCH_PARTNER, pairs + tries(unseen, singles), pairs + advantage(unseen, singles));
+        }
+        if (unseen == 0) {
+            return new Hint(Action.FLIP_UNSEEN, 0, 0);
+        }
+
+        // The open card counts as a known single now; look at the position
+        // before it was turned over, where it was the new card X. If it had
+        // been seen earlier this is the closest table state.
+        int before = unseen + 1;
+        int beforeSingles = Math.max(0, singles - 1);
+        byte flags = safe[index(before, beforeSingles)];
+        boolean useSafe = (flags & (versus ? VERSUS_SAFE : SOLO_SAFE)) != 0;
+        Action action = useSafe ? Action.FLIP_KNOWN : Action.FLIP_UNSEEN;
+        return new Hint(action, tries(before, beforeSingles), advantage(before, beforeSingles));
+    }
+
+    public void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int size = tries.length;
+        ByteBuffer buffer = ByteBuffer.allocate(12 + size * 17).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(maxCards);
+        buffer.asDoubleBuffer().put(tries);
+        buffer.position(buffer.position() + size * 8);
+        buffer.asDoubleBuffer().put(advantage);
+        buffer.position(buffer.position() + size * 8);
+        buffer.put(safe);
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static OptimalSolver load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a solver table: " + file);
+            }
+            int maxCards = header.getInt();
+            if (maxCards < 0 || maxCards % 2 != 0) {
+                throw new IOException("Corrupt solver table: " + file);
+            }
+
+            OptimalSolver solver = new OptimalSolver(maxCards);
+            int size = solver.tries.length;
+            ByteBuffer body = ByteBuffer.allocate(size * 17).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, body);
+            body.asDoubleBuffer().get(solver.tries);
+            body.position(size * 8);
+            body.asDoubleBuffer().get(solver.advantage);
+            body.position(size * 16);
+            body.get(solver.safe);
+            return solver;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of solver table");
+            }
+        }
+        buffer.flip();
+    }
+
+    // Row u holds the states k = u, u-2, ..., u mod 2 (u/2 + 1 entries)
+    private static int[] rowStarts(int maxCards) {
+        int[] starts = new int[maxCards + 2];
+        for (int u = 0; u <= maxCards; u++) {
+            starts[u + 1] = starts[u] + u / 2 + 1;
+        }
+        return starts;
+    }
+
+    private int index(int u, int k) {
+        return rowStart[u] + (u - k) / 2;
+    }
+
+    // Usage: OptimalSolver [pairs...]
+    public static void main(String[] args) {
+        int[] boards = args.length == 0 ? new int[] { 8, 18, 32 } : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            boards[i] = Integer.parseInt(args[i]);
+        }
+        int maxPairs = IntStream.of(boards).max().orElse(0);
+
+        long start = System.nanoTime();
+        OptimalSolver solver = forCards(2 * maxPairs, DEFAULT_FILE);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        for (int pairs : boards) {
+            System.out.printf("%d pairs: %.3f expected tries, first player advantage %.3f pairs%n",
+                    pairs, solver.expectedTries(pairs), solver.advantage(2 * pairs, 0));
+        }
+        System.out.printf("table up to %d cards ready in %d ms%n", solver.getMaxCards(), elapsedMillis);
+    }
+}
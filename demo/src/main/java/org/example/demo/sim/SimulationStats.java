@@ -0,0 +1,120 @@
+package org.example.demo.sim;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Aggregated results of simulated games: wins per seat (turn order), ties and
+// a histogram of tries per game. Recording never allocates except when the
+// histogram has to grow for an unusually long game.
+public class SimulationStats {
+    private final long[] wins;
+    private long ties;
+    private long games;
+    private long totalTries;
+    private long[] triesHistogram = new long[256];
+
+    public SimulationStats(int seats) {
+        wins = new long[seats];
+    }
+
+    // winner is the seat index, or -1 for a tie
+    public void recordGame(int tries, int winner) {
+        games++;
+        totalTries += tries;
+        if (tries >= triesHistogram.length) {
+            triesHistogram = Arrays.copyOf(triesHistogram, Math.max(tries + 1, triesHistogram.length * 2));
+        }
+        triesHistogram[tries]++;
+        if (winner < 0) {
+            ties++;
+        } else {
+            wins[winner]++;
+        }
+    }
+
+    public void merge(SimulationStats other) {
+        games += other.games;
+        ties += other.ties;
+        totalTries += other.totalTries;
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+        }
+        if (other.triesHistogram.length > triesHistogram.length) {
+            triesHistogram = Arrays.copyOf(triesHistogram, other.triesHistogram.length);
+        }
+        for (int i = 0; i < other.triesHistogram.length; i++) {
+            triesHistogram[i] += other.triesHistogram[i];
+        }
+    }
+
+    public void clear() {
+        games = 0;
+        ties = 0;
+        totalTries = 0;
+        Arrays.fill(wins, 0);
+        Arrays.fill(triesHistogram, 0);
+    }
+
+    public SimulationStats copy() {
+        SimulationStats copy = new SimulationStats(wins.length);
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public double getMeanTries() {
+        return games == 0 ? 0 : (double) totalTries / games;
+    }
+
+    public double getWinRate(int seat) {
+        return games == 0 ? 0 : (double) wins[seat] / games;
+    }
+
+    public double getTieRate() {
+        return games == 0 ? 0 : (double) ties / games;
+    }
+
+    // Number of tries that the given fraction of games did not exceed
+    public int triesPercentile(double fraction) {
+        long target = (long) Math.ceil(fraction * games);
+        long seen = 0;
+        for (int tries = 0; tries < triesHistogram.length; tries++) {
+            seen += triesHistogram[tries];
+            if (seen >= target && seen > 0) {
+                return tries;
+            }
+        }
+        return 0;
+    }
+
+    public String report(String[] seatNames, long elapsedNanos) {
+        StringBuilder out = new StringBuilder();
+        double seconds = elapsedNanos / 1e9;
+        out.append(String.format(Locale.ROOT, "%,d games in %.1fs (%,.0f games/s)%n",
+                games, seconds, seconds > 0 ? games / seconds : 0));
+        out.append(String.format(Locale.ROOT, "tries: mean %.2f, p50 %d, p90 %d, p99 %d, max %d%n",
+                getMeanTries(), triesPercentile(0.5), triesPercentile(0.9), triesPercentile(0.99), triesPercentile(1.0)));
+        for (int seat = 0; seat < wins.length; seat++) {
+            out.append(String.format(Locale.ROOT, "seat %d (%s): %.2f%% wins%n",
+                    seat + 1, seatNames[seat], 100 * getWinRate(seat)));
+        }
+        out.append(String.format(Locale.ROOT, "ties: %.2f%%%n", 100 * getTieRate()));
+
+        // Tries distribution in ten buckets between the minimum and the maximum
+        int min = triesPercentile(0);
+        int max = triesPercentile(1.0);
+        int bucketWidth = Math.max(1, (max - min + 10) / 10);
+        for (int start = min; start <= max; start += bucketWidth) {
+            long count = 0;
+            for (int tries = start; tries < start + bucketWidth && tries < triesHistogram.length; tries++) {
+                count += triesHistogram[tries];
+            }
+            out.append(String.format(Locale.ROOT, "  %5d-%-5d %6.2f%%%n",
+                    start, start + bucketWidth - 1, games == 0 ? 0 : 100.0 * count / games));
+        }
+        return out.toString();
+    }
+}
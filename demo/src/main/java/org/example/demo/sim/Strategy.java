@@ -0,0 +1,36 @@
+package org.example.demo.sim;
+
+import java.util.function.LongFunction;
+
+// How a simulated player picks cards. Every player is told about every
+// revealed card and every match; implementations must not allocate per move.
+public interface Strategy {
+
+    void reset(int cardCount);
+
+    // Restarts the random generator, so the following games only depend on the seed
+    void reseed(long seed);
+
+    void revealed(int index, int value);
+
+    void matched(int first, int second);
+
+    int chooseFirst();
+
+    int chooseSecond(int first, int firstValue);
+
+    // Creates strategy factories from names like "random", "perfect" or "forgetful:0.7".
+    // The factory argument is the seed of the strategy's random generator.
+    static LongFunction<Strategy> named(String name) {
+        String[] parts = name.split(":", 2);
+        return switch (parts[0]) {
+            case "random" -> seed -> new MemoryStrategy(0.0, seed);
+            case "perfect" -> seed -> new MemoryStrategy(1.0, seed);
+            case "forgetful" -> {
+                double recall = parts.length > 1 ? Double.parseDouble(parts[1]) : 0.5;
+                yield seed -> new MemoryStrategy(recall, seed);
+            }
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name);
+        };
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.demo.sim;
+
+import org.example.demo.engine.CardDeck;
+import org.example.demo.engine.GameEngine;
+import org.example.demo.engine.GameScheduler;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.LongStream;
+
+// Plays complete headless games with the real GameEngine rules on all cores.
+// Games are handed out in chunks through the common fork-join pool; each
+// worker thread keeps its own engine, deck and strategies and reuses them for
+// every game, so playing a game allocates nothing.
+//
+// Usage: TournamentSimulator <pairs> <games> <strategy,strategy,...> [seed]
+// e.g.   TournamentSimulator 18 1000000 perfect,forgetful:0.6
+public class TournamentSimulator {
+    private static final int CHUNK_SIZE = 1024;
+    private static final long SEED_MIX = 0x9E3779B97F4A7C15L;
+
+    private final int pairs;
+    private final LongFunction<Strategy>[] seats;
+    private final long seed;
+
+    public TournamentSimulator(int pairs, LongFunction<Strategy>[] seats, long seed) {
+        this.pairs = pairs;
+        this.seats = seats;
+        this.seed = seed;
+    }
+
+    // Runs the games and passes a snapshot of the running totals to progress
+    // about once per second
+    public SimulationStats run(long games, Consumer<SimulationStats> progress) {
+        SimulationStats total = new SimulationStats(seats.length);
+        ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+        long chunks = (games + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+        GameScheduler.Handle reporter = GameScheduler.headless().scheduleAtFixedRate(() -> {
+            SimulationStats snapshot;
+            synchronized (total) {
+                snapshot = total.copy();
+            }
+            progress.accept(snapshot);
+        }, 1, TimeUnit.SECONDS);
+
+        try {
+            LongStream.range(0, chunks).parallel().forEach(chunk -> {
+                Worker worker = workers.get();
+                int count = (int) Math.min(CHUNK_SIZE, games - chunk * CHUNK_SIZE);
+                worker.playChunk(chunk, count);
+                synchronized (total) {
+                    total.merge(worker.stats);
+                }
+            });
+        } finally {
+            reporter.cancel();
+        }
+        return total;
+    }
+
+    private class Worker {
+        private final GameEngine engine = new GameEngine();
+        private final int[] deck = new int[pairs * 2];
+        private final int[] pairsWon = new int[seats.length];
+        private final Strategy[] strategies = new Strategy[seats.length];
+        private final SimulationStats stats = new SimulationStats(seats.length);
+
+        Worker() {
+            for (int i = 0; i < seats.length; i++) {
+                strategies[i] = seats[i].apply(seed + i);
+            }
+            engine.setPlayerCount(seats.length);
+        }
+
+        // Deals and moves of a chunk only depend on (seed, chunk), whichever
+        // thread plays it, so a seeded run gives the same results every time
+        void playChunk(long chunk, int count) {
+            stats.clear();
+            long chunkSeed = seed ^ chunk * SEED_MIX;
+            for (int i = 0; i < seats.length; i++) {
+                strategies[i].reseed(chunkSeed + i + 1);
+            }
+            SplittableRandom deals = new SplittableRandom(chunkSeed);
+            for (int i = 0; i < count; i++) {
+                CardDeck.dealInto(deck, pairs, deals);
+                playGame();
+            }
+        }
+
+        private void playGame() {
+            int cardCount = deck.length;
+            engine.initialize(deck);
+            engine.setCurrentPlayerIndex(0);
+            for (int i = 0; i < seats.length; i++) {
+                strategies[i].reset(cardCount);
+                pairsWon[i] = 0;
+            }
+
+            // Guard against strategies that never finish
+            int maxTries = 50 * cardCount + 1000;
+            while (!engine.isGameOver() && engine.getTries() < maxTries) {
+                int player = engine.getCurrentPlayerIndex();
+                Strategy strategy = strategies[player];
+
+                int first = strategy.chooseFirst();
+                engine.flipCard(first);
+                int firstValue = engine.getValue(first);
+                reveal(first, firstValue);
+
+                int second = strategy.chooseSecond(first, firstValue);
+                engine.flipCard(second);
+                reveal(second, engine.getValue(second));
+
+                if (engine.isMatched(first) && engine.isMatched(second)) {
+                    pairsWon[player]++;
+                    for (Strategy other : strategies) {
+                        other.matched(first, second);
+                    }
+                } else {
+                    engine.flipCardsBack();
+                }
+            }
+
+            stats.recordGame(engine.getTries(), winner());
+        }
+
+        private void reveal(int index, int value) {
+            for (Strategy strategy : strategies) {
+                strategy.revealed(index, value);
+            }
+        }
+
+        private int winner() {
+            int best = 0;
+            boolean tie = false;
+            for (int i = 1; i < pairsWon.length; i++) {
+                if (pairsWon[i] > pairsWon[best]) {
+                    best = i;
+                    tie = false;
+                } else if (pairsWon[i] == pairsWon[best]) {
+                    tie = true;
+                }
+            }
+            return tie ? -1 : best;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: TournamentSimulator <pairs> <games> <strategy,strategy,...> [seed]");
+            System.err.println("Strategies: random, perfect, forgetful:<recall 0..1>");
+            return;
+        }
+        int pairs = Integer.parseInt(args[0]);
+        long games = Long.parseLong(args[1]);
+        String[] names = args[2].split(",");
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : CardDeck.newSeed();
+
+        @SuppressWarnings({"unchecked", "rawtypes"}) // no generic array creation
+        LongFunction<Strategy>[] seats = new LongFunction[names.length];
+        for (int i = 0; i < names.length; i++) {
+            seats[i] = Strategy.named(names[i]);
+        }
+
+        System.out.println("Simulating " + games + " games, " + pairs + " pairs, seed " + seed);
+        long start = System.nanoTime();
+        TournamentSimulator simulator = new TournamentSimulator(pairs, seats, seed);
+        SimulationStats result = simulator.run(games, snapshot ->
+                System.out.printf("... %,d games (%,.0f games/s)%n", snapshot.getGames(),
+                        snapshot.getGames() / ((System.nanoTime() - start) / 1e9)));
+        System.out.print(result.report(names, System.nanoTime() - start));
+    }
+}
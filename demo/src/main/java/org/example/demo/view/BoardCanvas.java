@@ -0,0 +1,270 @@
+package org.example.demo.view;
+
+import javafx.application.Platform;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import org.example.demo.engine.CardDeck;
+import org.example.demo.engine.GameEngine;
+import org.example.demo.engine.GameListener;
+import org.example.demo.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Grid view of the board drawn on a single Canvas. The canvas is only as big
+// as the visible area and only the rows inside it are painted; a flip repaints
+// just the affected tiles. Reads the engine directly, so no Card objects are
+// needed even for very large boards.
+public class BoardCanvas extends Region {
+    private static final double TILE_SIZE = 56;
+    private static final double GAP = 6;
+    private static final double STEP = TILE_SIZE + GAP;
+
+    private static final Color HIDDEN_COLOR = Color.web("#5b6c8f");
+    private static final Color FLIPPED_COLOR = Color.LIGHTBLUE;
+    private static final Color MATCHED_COLOR = Color.LIGHTGREEN;
+    private static final int FACE_SIZE = (int) TILE_SIZE - 14;
+
+    private final GameEngine engine;
+    private final Canvas canvas = new Canvas();
+    private final ScrollBar scrollBar = new ScrollBar();
+    private final Runnable redrawTask = this::redrawDirtyTiles;
+
+    private int[] dirtyTiles = new int[16];
+    private int dirtyCount;
+    private Scene scheduledScene;
+
+    private int columns = 1;
+    private double offsetX;
+    private IntConsumer onCardClicked = index -> { };
+    private CardImageCache images;
+
+    public BoardCanvas(GameEngine engine) {
+        this.engine = engine;
+
+        scrollBar.setOrientation(Orientation.VERTICAL);
+        scrollBar.valueProperty().addListener(obs -> redrawAll());
+        getChildren().addAll(canvas, scrollBar);
+
+        canvas.addEventHandler(MouseEvent.MOUSE_CLICKED, this::handleClick);
+        addEventHandler(ScrollEvent.SCROLL, event -> {
+            double value = scrollBar.getValue() - event.getDeltaY();
+            scrollBar.setValue(Math.max(scrollBar.getMin(), Math.min(scrollBar.getMax(), value)));
+            event.consume();
+        });
+
+        engine.addListener(new GameListener() {
+            @Override
+            public void boardInitialized(int cardCount) {
+                scrollBar.setValue(0);
+                requestLayout();
+                if (images != null) {
+                    images.preload(cardCount / 2, FACE_SIZE);
+                }
+            }
+
+            @Override
+            public void cardFlipped(int index, boolean flipped) {
+                markDirty(index);
+            }
+
+            @Override
+            public void cardsMatched(int firstIndex, int secondIndex, int playerIndex) {
+                markDirty(firstIndex);
+                markDirty(secondIndex);
+            }
+
+            @Override
+            public void stateRestored() {
+                requestLayout();
+            }
+
+            @Override
+            public void turnRestored(int[] changedCards) {
+                for (int index : changedCards) {
+                    markDirty(index);
+                }
+            }
+        });
+    }
+
+    public void setOnCardClicked(IntConsumer onCardClicked) {
+        this.onCardClicked = onCardClicked;
+    }
+
+    // Draws open cards with the faces of the cache's theme
+    public void setImages(CardImageCache images) {
+        this.images = images;
+        images.themeProperty().addListener(obs -> {
+            images.preload(engine.getCardCount() / 2, FACE_SIZE);
+            redrawAll();
+        });
+        images.preload(engine.getCardCount() / 2, FACE_SIZE);
+    }
+
+    @Override
+    protected void layoutChildren() {
+        double width = getWidth();
+        double height = getHeight();
+        double scrollBarWidth = scrollBar.prefWidth(-1);
+        double contentWidth = Math.max(0, width - scrollBarWidth);
+
+        // Roughly square boards, but never wider than the available space
+        int cardCount = engine.getCardCount();
+        int fitting = (int) Math.max(1, Math.floor((contentWidth - GAP) / STEP));
+        columns = Math.max(1, Math.min((int) Math.ceil(Math.sqrt(cardCount)), fitting));
+        offsetX = Math.max(GAP, (contentWidth - columns * STEP + GAP) / 2);
+
+        int rows = (cardCount + columns - 1) / columns;
+        double contentHeight = rows * STEP + GAP;
+        double maxScroll = Math.max(0, contentHeight - height);
+        scrollBar.setMax(maxScroll);
+        scrollBar.setVisibleAmount(height);
+        scrollBar.setUnitIncrement(STEP / 2);
+        scrollBar.setBlockIncrement(height);
+        scrollBar.setVisible(maxScroll > 0);
+        if (scrollBar.getValue() > maxScroll) {
+            scrollBar.setValue(maxScroll);
+        }
+
+        scrollBar.resizeRelocate(contentWidth, 0, scrollBarWidth, height);
+        canvas.setWidth(contentWidth);
+        canvas.setHeight(height);
+        redrawAll();
+    }
+
+    @Override
+    protected double computePrefWidth(double height) {
+        return 8 * STEP + GAP + scrollBar.prefWidth(-1);
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 8 * STEP + GAP;
+    }
+
+    private void markDirty(int index) {
+        if (dirtyCount == dirtyTiles.length) {
+            dirtyTiles = Arrays.copyOf(dirtyTiles, dirtyCount * 2);
+        }
+        dirtyTiles[dirtyCount++] = index;
+
+        Scene scene = getScene();
+        if (scene == null) {
+            dirtyCount = 0;
+            return;
+        }
+        if (scheduledScene == null) {
+            // Paint once per pulse, however many tiles changed
+            scheduledScene = scene;
+            scene.addPreLayoutPulseListener(redrawTask);
+            Platform.requestNextPulse();
+        }
+    }
+
+    private void redrawDirtyTiles() {
+        scheduledScene.removePreLayoutPulseListener(redrawTask);
+        scheduledScene = null;
+
+        long start = Metrics.start();
+        GraphicsContext gc = prepareContext();
+        double scrollY = scrollBar.getValue();
+        for (int i = 0; i < dirtyCount; i++) {
+            drawTile(gc, dirtyTiles[i], scrollY, true);
+        }
+        Metrics.rendered(Metrics.BOARD_VIEW, dirtyCount, start);
+        dirtyCount = 0;
+    }
+
+    private void redrawAll() {
+        GraphicsContext gc = prepareContext();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        int cardCount = engine.getCardCount();
+        double scrollY = scrollBar.getValue();
+        int firstRow = (int) Math.floor(scrollY / STEP);
+        int lastRow = (int) Math.floor((scrollY + canvas.getHeight()) / STEP);
+        int first = Math.max(0, firstRow * columns);
+        int last = Math.min(cardCount, (lastRow + 1) * columns);
+        for (int index = first; index < last; index++) {
+            drawTile(gc, index, scrollY, false);
+        }
+    }
+
+    private GraphicsContext prepareContext() {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setFont(Font.font(TILE_SIZE / 3));
+        return gc;
+    }
+
+    private void drawTile(GraphicsContext gc, int index, double scrollY, boolean clear) {
+        if (index >= engine.getCardCount()) {
+            return;
+        }
+        double x = offsetX + (index % columns) * STEP;
+        double y = GAP + (index / columns) * STEP - scrollY;
+        if (y + TILE_SIZE < 0 || y > canvas.getHeight()) {
+            return;
+        }
+        if (clear) {
+            gc.clearRect(x, y, TILE_SIZE, TILE_SIZE);
+        }
+
+        boolean matched = engine.isMatched(index);
+        boolean flipped = engine.isFlipped(index);
+        gc.setFill(matched ? MATCHED_COLOR : flipped ? FLIPPED_COLOR : HIDDEN_COLOR);
+        gc.fillRoundRect(x, y, TILE_SIZE, TILE_SIZE, 10, 10);
+
+        if (!matched && !flipped) {
+            gc.setFill(Color.WHITE);
+            gc.fillText("?", x + TILE_SIZE / 2, y + TILE_SIZE / 2, TILE_SIZE - 8);
+            return;
+        }
+
+        int value = engine.getValue(index);
+        Image face = images == null ? null : images.get(value, FACE_SIZE, () -> markDirty(index));
+        gc.setFill(Color.BLACK);
+        if (face == null) {
+            // Plain label, also the placeholder while the face is decoded
+            gc.fillText(CardDeck.label(value), x + TILE_SIZE / 2, y + TILE_SIZE / 2, TILE_SIZE - 8);
+            return;
+        }
+        double inset = (TILE_SIZE - FACE_SIZE) / 2;
+        gc.drawImage(face, x + inset, y + inset - 4);
+        gc.save();
+        gc.setFont(Font.font(10));
+        gc.fillText(CardDeck.label(value), x + TILE_SIZE / 2, y + TILE_SIZE - 6, TILE_SIZE - 8);
+        gc.restore();
+    }
+
+    // Maps a click position straight to a card index
+    private void handleClick(MouseEvent event) {
+        double x = event.getX() - offsetX;
+        double y = event.getY() + scrollBar.getValue() - GAP;
+        if (x < 0 || y < 0) {
+            return;
+        }
+        int column = (int) (x / STEP);
+        int row = (int) (y / STEP);
+        if (column >= columns || x - column * STEP > TILE_SIZE || y - row * STEP > TILE_SIZE) {
+            return; // outside the grid or in the gap between tiles
+        }
+        int index = row * columns + column;
+        if (index < engine.getCardCount()) {
+            onCardClicked.accept(index);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.demo.view;
+
+import javafx.beans.InvalidationListener;
+import javafx.scene.control.ListCell;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import org.example.demo.model.Card;
+
+// List cell that listens to its own Card and restyles only itself.
+// The listeners move with the item, so a cell never keeps listening to a card
+// it no longer shows.
+public class CardCell extends ListCell<Card> {
+    private static final int FACE_SIZE = 24;
+
+    private final RenderBatch renderBatch;
+    private final CardImageCache images;
+    private final ImageView faceView = new ImageView();
+    private final InvalidationListener cardListener = obs -> markDirty();
+    private Card boundCard;
+    private boolean dirty;
+
+    public CardCell(RenderBatch renderBatch, CardImageCache images) {
+        this.renderBatch = renderBatch;
+        this.images = images;
+    }
+
+    @Override
+    protected void updateItem(Card card, boolean empty) {
+        super.updateItem(card, empty);
+        Card newCard = empty ? null : card;
+        if (newCard != boundCard) {
+            if (boundCard != null) {
+                boundCard.flippedProperty().removeListener(cardListener);
+                boundCard.matchedProperty().removeListener(cardListener);
+            }
+            boundCard = newCard;
+            if (boundCard != null) {
+                boundCard.flippedProperty().addListener(cardListener);
+                boundCard.matchedProperty().addListener(cardListener);
+            }
+        }
+        render();
+    }
+
+    private void markDirty() {
+        if (!dirty) {
+            dirty = true;
+            renderBatch.markDirty(this);
+        }
+    }
+
+    void render() {
+        dirty = false;
+        Card card = boundCard;
+        if (card == null) {
+            setText(null);
+            setGraphic(null);
+            setStyle("");
+            return;
+        }
+
+        // Reading the values also re-arms the invalidation listeners
+        boolean matched = card.isMatched();
+        boolean flipped = card.isFlipped();
+        setText(card.toString());
+        Image face = matched || flipped ? images.get(card.getFace(), FACE_SIZE, this::markDirty) : null;
+        faceView.setImage(face);
+        setGraphic(face == null ? null : faceView);
+        if (matched) {
+            setStyle("-fx-background-color: lightgreen;");
+        } else if (flipped) {
+            setStyle("-fx-background-color: lightblue;");
+        } else {
+            setStyle("");
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.example.demo.view;
+
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.image.Image;
+import org.example.demo.metrics.Counter;
+import org.example.demo.metrics.LatencyHistogram;
+import org.example.demo.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Decoded card faces for the current theme, shared by every card (and view)
+// showing the same pair at the same size.
+//
+// Faces are decoded on background threads, straight to the size they are
+// drawn at, and handed to the FX thread when done; until then get() returns
+// null and the views show the text label as placeholder. The FX thread only
+// does map lookups, so switching themes or dealing a large board never waits
+// for image I/O. Decoded faces are kept in an LRU map bounded by their pixel
+// memory (-Dmemory.imageCacheMB, default 32).
+//
+// Faces the views are waiting for are decoded before preloads, such as the
+// faces of the next theme in the chooser.
+public class CardImageCache {
+    private static final long DEFAULT_CACHE_MB = 32;
+    private static final int VISIBLE = 0;
+    private static final int PRELOAD = 1;
+
+    private static final Counter HITS = Metrics.counter("images.hits");
+    private static final Counter MISSES = Metrics.counter("images.misses");
+    private static final Counter EVICTIONS = Metrics.counter("images.evictions");
+    private static final LatencyHistogram DECODE = Metrics.histogram("image.decode");
+
+    private record Key(CardTheme theme, int face, int size) {
+    }
+
+    private final ObjectProperty<CardTheme> theme = new SimpleObjectProperty<>(this, "theme", CardTheme.CLASSIC);
+    private final long maxBytes;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ThreadPoolExecutor loader;
+
+    // FX thread only
+    private final Map<Key, Image> images = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Key, LoadTask> loading = new HashMap<>();
+    private long bytes;
+    private int preloadFaces; // board the preloads are for
+    private int preloadSize;
+
+    public CardImageCache() {
+        this(Long.getLong("memory.imageCacheMB", DEFAULT_CACHE_MB) << 20);
+    }
+
+    public CardImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        loader = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "card-image-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Metrics.gauge("images.cached", () -> images.size());
+        Metrics.gauge("images.bytes", () -> bytes);
+    }
+
+    public ObjectProperty<CardTheme> themeProperty() {
+        return theme;
+    }
+
+    public CardTheme getTheme() {
+        return theme.get();
+    }
+
+    public void setTheme(CardTheme theme) {
+        this.theme.set(theme);
+    }
+
+    // The face of a pair in the current theme, or null while it is being
+    // decoded (or when the theme has no images). onReady runs on the FX
+    // thread once a missing face is available.
+    public Image get(int face, int size, Runnable onReady) {
+        CardTheme current = theme.get();
+        if (!current.hasImages() || face < 0) {
+            return null;
+        }
+        Key key = new Key(current, face, size);
+        Image image = images.get(key);
+        if (image != null) {
+            HITS.increment();
+            return image;
+        }
+        MISSES.increment();
+        load(key, VISIBLE).callbacks.add(onReady);
+        return null;
+    }
+
+    // Decodes the faces of a board in the current theme ahead of time, and
+    // then those of the next theme in the chooser
+    public void preload(int faces, int size) {
+        preloadFaces = faces;
+        preloadSize = size;
+        preloadTheme(theme.get(), VISIBLE);
+        preloadTheme(theme.get().next(), PRELOAD);
+    }
+
+    private void preloadTheme(CardTheme preloaded, int priority) {
+        if (!preloaded.hasImages() || preloadFaces == 0) {
+            return;
+        }
+        // Everything up to the cache limit, but no more; later faces would
+        // only evict earlier ones
+        long faceBytes = 4L * preloadSize * preloadSize;
+        int faces = (int) Math.min(preloadFaces, maxBytes / 2 / faceBytes);
+        for (int face = 0; face < faces; face++) {
+            Key key = new Key(preloaded, face, preloadSize);
+            if (!images.containsKey(key)) {
+                load(key, priority);
+            }
+        }
+    }
+
+    private LoadTask load(Key key, int priority) {
+        LoadTask task = loading.get(key);
+        if (task != null && task.priority <= priority) {
+            return task;
+        }
+        LoadTask queued = new LoadTask(key, priority, sequence.getAndIncrement());
+        if (task != null) {
+            // A view needs a face that was only queued for preloading: queue
+            // it again in front, the first of the two to run does the work
+            task.superseded = true;
+            queued.callbacks.addAll(task.callbacks);
+        }
+        loading.put(key, queued);
+        loader.execute(queued);
+        return queued;
+    }
+
+    private void loaded(LoadTask task, Image image) {
+        if (loading.get(task.key) == task) {
+            loading.remove(task.key);
+        }
+        if (image != null && !images.containsKey(task.key)) {
+            images.put(task.key, image);
+            bytes += imageBytes(image);
+            evict();
+        }
+        if (task.superseded) {
+            return; // the task that replaced it runs the callbacks
+        }
+        for (Runnable callback : task.callbacks) {
+            callback.run();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Image>> eldest = images.entrySet().iterator();
+        while (bytes > maxBytes && images.size() > 1) {
+            bytes -= imageBytes(eldest.next().getValue());
+            eldest.remove();
+            EVICTIONS.increment();
+        }
+    }
+
+    public String getStats() {
+        long hits = HITS.get();
+        long lookups = hits + MISSES.get();
+        return String.format("%d faces, %.1f MB, hit rate %.1f%%", images.size(), bytes / 1048576.0,
+                lookups == 0 ? 0 : 100.0 * hits / lookups);
+    }
+
+    private static long imageBytes(Image image) {
+        return 4L * (long) image.getWidth() * (long) image.getHeight();
+    }
+
+    // Runs on a loader thread
+    private static Image decode(Key key) {
+        String resource = key.theme().resource(key.face());
+        if (resource != null) {
+            try (InputStream in = CardImageCache.class.getResourceAsStream(resource)) {
+                if (in != null) {
+                    Image image = new Image(in, key.size(), key.size(), true, true);
+                    if (!image.isError()) {
+                        return image;
+                    }
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return FaceGenerator.paint(key.face(), key.size());
+    }
+
+    private class LoadTask implements Runnable, Comparable<LoadTask> {
+        final Key key;
+        final int priority;
+        final long order;
+        final List<Runnable> callbacks = new ArrayList<>(2); // FX thread only
+        volatile boolean superseded;
+
+        LoadTask(Key key, int priority, long order) {
+            this.key = key;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public void run() {
+            if (superseded) {
+                return;
+            }
+            long start = Metrics.start();
+            Image image = null;
+            try {
+                image = decode(key);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            DECODE.recordSince(start);
+            Image decoded = image;
+            Platform.runLater(() -> loaded(this, decoded));
+        }
+
+        @Override
+        public int compareTo(LoadTask other) {
+            if (priority != other.priority) {
+                return Integer.compare(priority, other.priority);
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+}
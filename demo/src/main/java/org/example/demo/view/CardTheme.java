@@ -0,0 +1,69 @@
+package org.example.demo.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Card face themes. CLASSIC shows the plain labels; SHAPES draws a coloured
+// shape per pair. The picture themes read their faces from
+// /org/example/demo/themes/<directory>/<pair>.png on the classpath; pairs
+// without a picture fall back to the generated shape. A picture theme
+// whose pictures are not on the classpath would look exactly like SHAPES,
+// so it is not offered.
+public enum CardTheme {
+    CLASSIC("Classic", null),
+    SHAPES("Shapes", null),
+    ANIMALS("Animals", "animals"),
+    FRUIT("Fruit", "fruit"),
+    TECH("Tech Symbols", "tech");
+
+    private final String displayName;
+    private final String directory;
+
+    CardTheme(String displayName, String directory) {
+        this.displayName = displayName;
+        this.directory = directory;
+    }
+
+    public boolean hasImages() {
+        return this != CLASSIC;
+    }
+
+    // True if the theme can be shown: generated faces always, pictures once
+    // the first one ships
+    public boolean isAvailable() {
+        return directory == null || CardTheme.class.getResource(resource(0)) != null;
+    }
+
+    // The themes offered in the chooser
+    public static List<CardTheme> available() {
+        List<CardTheme> available = new ArrayList<>();
+        for (CardTheme theme : values()) {
+            if (theme.isAvailable()) {
+                available.add(theme);
+            }
+        }
+        return available;
+    }
+
+    // Classpath resource of a pair's picture, or null for generated faces
+    String resource(int face) {
+        return directory == null ? null : "/org/example/demo/themes/" + directory + "/" + face + ".png";
+    }
+
+    // The theme after this one in the chooser, preloaded in the background
+    public CardTheme next() {
+        CardTheme[] themes = values();
+        for (int i = 1; i < themes.length; i++) {
+            CardTheme next = themes[(ordinal() + i) % themes.length];
+            if (next.isAvailable()) {
+                return next;
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
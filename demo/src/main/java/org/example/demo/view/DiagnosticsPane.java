@@ -0,0 +1,61 @@
+package org.example.demo.view;
+
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.scene.text.Font;
+import org.example.demo.metrics.Metrics;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// Shows the current metrics report, and writes it to a file for bug reports.
+// The report is only built on refresh, so the pane costs nothing while hidden.
+public class DiagnosticsPane extends VBox {
+    private final TextArea report = new TextArea();
+    private final Label status = new Label();
+    private final Path dumpFile;
+    private final CardImageCache images;
+
+    public DiagnosticsPane(Path dumpFile, CardImageCache images) {
+        this.dumpFile = dumpFile;
+        this.images = images;
+
+        report.setEditable(false);
+        report.setFont(Font.font("Monospaced", 12));
+        VBox.setVgrow(report, Priority.ALWAYS);
+
+        Button refreshButton = new Button("Refresh");
+        refreshButton.setOnAction(event -> refresh());
+        Button resetButton = new Button("Reset");
+        resetButton.setOnAction(event -> {
+            Metrics.reset();
+            refresh();
+        });
+        Button dumpButton = new Button("Dump to File");
+        dumpButton.setOnAction(event -> dump());
+
+        HBox buttons = new HBox(10, refreshButton, resetButton, dumpButton, status);
+        setSpacing(6);
+        setPadding(new Insets(6));
+        getChildren().addAll(report, buttons);
+    }
+
+    public void refresh() {
+        report.setText(Metrics.report() + "\nCard images: " + images.getStats() + "\n");
+    }
+
+    private void dump() {
+        try {
+            Metrics.dump(dumpFile);
+            status.setText("Written to " + dumpFile.toAbsolutePath());
+        } catch (IOException e) {
+            e.printStackTrace();
+            status.setText("Could not write " + dumpFile);
+        }
+    }
+}
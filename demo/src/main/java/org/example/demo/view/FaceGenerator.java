@@ -0,0 +1,73 @@
+package org.example.demo.view;
+
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+// Draws a card face without any image file: one of six shapes in a colour
+// picked by the golden ratio, so neighbouring pairs differ in both. Shapes
+// are rasterized from signed distance functions with one pixel of
+// antialiasing. Builds the pixels in a plain array, so it can run on any
+// thread.
+final class FaceGenerator {
+    private static final int SHAPES = 6;
+    private static final double GOLDEN_RATIO = 0.618033988749895;
+
+    private FaceGenerator() {
+    }
+
+    static WritableImage paint(int face, int size) {
+        Color color = Color.hsb(360 * ((face * GOLDEN_RATIO) % 1), 0.65, 0.85);
+        int rgb = (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+        int shape = face % SHAPES;
+
+        double center = size / 2.0;
+        double radius = size * 0.4;
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double px = x + 0.5 - center;
+                double py = center - (y + 0.5); // y up
+                double distance = distance(shape, px, py, radius);
+                double coverage = Math.max(0, Math.min(1, 0.5 - distance));
+                pixels[y * size + x] = (int) Math.round(coverage * 255) << 24 | rgb;
+            }
+        }
+
+        WritableImage image = new WritableImage(size, size);
+        image.getPixelWriter().setPixels(0, 0, size, size, PixelFormat.getIntArgbInstance(), pixels, 0, size);
+        return image;
+    }
+
+    // Signed distance in pixels from the shape's outline, negative inside
+    private static double distance(int shape, double x, double y, double r) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+        return switch (shape) {
+            case 0 -> Math.hypot(x, y) - r;
+            case 1 -> Math.max(ax, ay) - r * 0.85;
+            case 2 -> (ax + ay - r) / Math.sqrt(2);
+            case 3 -> triangle(x, y + r * 0.15, r);
+            case 4 -> Math.abs(Math.hypot(x, y) - r * 0.75) - r * 0.25;
+            default -> Math.min(Math.max(ax - r * 0.3, ay - r), Math.max(ax - r, ay - r * 0.3));
+        };
+    }
+
+    // Equilateral triangle pointing up, circumradius r
+    private static double triangle(double x, double y, double r) {
+        double k = Math.sqrt(3);
+        double halfSide = r * k / 2;
+        double px = Math.abs(x) - halfSide;
+        double py = y + halfSide / k;
+        if (px + k * py > 0) {
+            double nx = (px - k * py) / 2;
+            double ny = (-k * px - py) / 2;
+            px = nx;
+            py = ny;
+        }
+        px -= Math.max(-2 * halfSide, Math.min(0, px));
+        return -Math.hypot(px, py) * Math.signum(py);
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.demo.view;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import org.example.demo.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects cells whose model changed and renders each of them once, right
+// before the next layout pass. Several changes to the same card within one
+// pulse (flipped + matched, both cards of a pair, ...) cost a single restyle.
+public class RenderBatch {
+    private final List<CardCell> dirtyCells = new ArrayList<>();
+    private final Runnable flush = this::flush;
+    private Scene scene;
+
+    void markDirty(CardCell cell) {
+        Scene cellScene = cell.getScene();
+        if (cellScene == null) {
+            // Not showing, nothing to coalesce with
+            cell.render();
+            return;
+        }
+        dirtyCells.add(cell);
+        if (scene == null) {
+            scene = cellScene;
+            scene.addPreLayoutPulseListener(flush);
+            Platform.requestNextPulse();
+        }
+    }
+
+    private void flush() {
+        scene.removePreLayoutPulseListener(flush);
+        scene = null;
+        long start = Metrics.start();
+        for (CardCell cell : dirtyCells) {
+            cell.render();
+        }
+        Metrics.rendered(Metrics.LIST_VIEW, dirtyCells.size(), start);
+        dirtyCells.clear();
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.demo.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class TurnHistoryTest {
+
+    // Everything a turn restores, in one comparable string
+    static String state(GameEngine engine) {
+        EngineState state = engine.saveState();
+        return Arrays.toString(state.flipped()) + Arrays.toString(state.matched()) + Arrays.toString(state.seen())
+                + " tries " + state.tries() + " pairs " + state.matchedPairs() + " player " + state.currentPlayerIndex()
+                + " unseen " + engine.getUnseenCount() + " singles " + engine.getKnownSingles()
+                + " known " + engine.getKnownPairs() + " over " + engine.isGameOver();
+    }
+
+    // Flips random cards until the turn ends with a match or a flip back
+    static void playTurn(GameEngine engine, Random random) {
+        while (!engine.isGameOver()) {
+            if (!engine.flipCard(random.nextInt(engine.getCardCount()))) {
+                continue;
+            }
+            if (engine.isWaitingForFlipBack()) {
+                engine.flipCardsBack();
+                return;
+            }
+            if (engine.getFirstCardIndex() < 0) {
+                return;
+            }
+        }
+    }
+
+    @Test
+    void withCopiesOnlyTheChangedCard() {
+        Board board = new Board();
+        board.reset(CardDeck.deal(100, 1));
+        PersistentBoard empty = PersistentBoard.of(board);
+
+        PersistentBoard changed = empty.with(130, true, false, true);
+
+        assertTrue(changed.isFlipped(130));
+        assertFalse(changed.isMatched(130));
+        assertTrue(changed.isSeen(130));
+        assertFalse(empty.isFlipped(130), "the older version is unchanged");
+        for (int i = 0; i < board.size(); i++) {
+            if (i != 130) {
+                assertFalse(changed.isFlipped(i) || changed.isMatched(i) || changed.isSeen(i), "card " + i);
+            }
+        }
+        assertSame(changed, changed.with(130, true, false, true), "setting the same flags is free");
+    }
+
+    @Test
+    void diffReportsExactlyTheChangedCardsInOrder() {
+        Random random = new Random(2);
+        Board board = new Board();
+        board.reset(CardDeck.deal(5_000, 2));
+        PersistentBoard base = PersistentBoard.of(board);
+        PersistentBoard other = base;
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 300; i++) {
+            int index = random.nextInt(board.size());
+            other = other.with(index, true, random.nextBoolean(), true);
+            expected.add(index);
+        }
+
+        List<Integer> reported = new ArrayList<>();
+        base.diff(other, reported::add);
+
+        assertEquals(new ArrayList<>(expected), reported);
+        other.diff(other, index -> fail("card " + index + " reported for the same version"));
+    }
+
+    @Test
+    void rewindRestoresTheStateCapturedAtEveryTurn() {
+        Random random = new Random(3);
+        for (int pairs : new int[] { 8, 40, 1_000 }) {
+            GameEngine engine = new GameEngine();
+            TurnHistory history = new TurnHistory(engine);
+            engine.setPlayerCount(3);
+            engine.initialize(CardDeck.deal(pairs, pairs));
+            List<String> states = new ArrayList<>();
+            states.add(state(engine));
+
+            for (int step = 0; step < 20 * pairs && !engine.isGameOver(); step++) {
+                playTurn(engine, random);
+                if (history.checkpoint()) {
+                    states.add(state(engine));
+                }
+                if (random.nextInt(10) == 0 && history.getLastTurn() > 0) {
+                    int turn = random.nextInt(history.getLastTurn() + 1);
+                    history.rewind(turn);
+                    assertEquals(states.get(turn), state(engine), pairs + " pairs, rewind to " + turn);
+                    if (random.nextBoolean()) {
+                        // Redo to the latest turn
+                        history.rewind(history.getLastTurn());
+                    } else {
+                        // Branch: the next checkpoint drops the undone turns
+                        states.subList(turn + 1, states.size()).clear();
+                    }
+                    assertEquals(states.get(history.getTurn()), state(engine));
+                }
+            }
+
+            for (int turn = history.getLastTurn(); turn >= 0; turn--) {
+                history.rewind(turn);
+                assertEquals(states.get(turn), state(engine), pairs + " pairs, undo to " + turn);
+            }
+        }
+    }
+
+    @Test
+    void undoInTheMiddleOfATurnClosesTheOpenCard() {
+        GameEngine engine = new GameEngine();
+        TurnHistory history = new TurnHistory(engine);
+        engine.initialize(CardDeck.deal(8, 4));
+        String fresh = state(engine);
+
+        engine.flipCard(0);
+        assertFalse(history.isAtCheckpoint());
+        assertTrue(history.canUndo());
+        history.rewind(0);
+
+        assertEquals(fresh, state(engine));
+        assertFalse(engine.isFlipped(0));
+        assertEquals(-1, engine.getFirstCardIndex());
+    }
+
+    @Test
+    void jumpToRestoresADroppedTurn() {
+        Random random = new Random(5);
+        GameEngine engine = new GameEngine();
+        TurnHistory history = new TurnHistory(engine);
+        engine.initialize(CardDeck.deal(40, 6));
+        for (int i = 0; i < 10; i++) {
+            playTurn(engine, random);
+            history.checkpoint();
+        }
+        TurnHistory.Turn kept = history.getCurrent();
+        String keptState = state(engine);
+
+        // Undo and play on, which drops the kept turn from the history
+        history.rewind(3);
+        for (int i = 0; i < 5; i++) {
+            playTurn(engine, random);
+            history.checkpoint();
+        }
+        history.jumpTo(kept);
+
+        assertEquals(keptState, state(engine));
+        assertEquals(0, history.getTurn());
+        assertEquals(0, history.getLastTurn());
+    }
+}
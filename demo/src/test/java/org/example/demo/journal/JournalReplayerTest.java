@@ -0,0 +1,141 @@
+package org.example.demo.journal;
+
+import org.example.demo.engine.EngineState;
+import org.example.demo.engine.GameEngine;
+import org.example.demo.model.GameSnapshot;
+import org.example.demo.model.MemoryGame;
+import org.example.demo.model.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalReplayerTest {
+    @TempDir
+    Path dir;
+
+    private static String state(GameEngine engine) {
+        EngineState state = engine.saveState();
+        return Arrays.toString(state.flipped()) + Arrays.toString(state.matched()) + Arrays.toString(state.seen())
+                + " tries " + state.tries() + " pairs " + state.matchedPairs() + " player " + state.currentPlayerIndex();
+    }
+
+    @Test
+    void replayWithRewindsMatchesTheLiveGame() throws IOException {
+        Random random = new Random(5);
+        Path file = dir.resolve("test.journal");
+        // Live state at the end of turns, by the journal offset it was reached at
+        Map<Long, String> live = new LinkedHashMap<>();
+        int rewinds = 0;
+        try (GameJournal journal = GameJournal.open(file)) {
+            MemoryGame game = new MemoryGame();
+            game.addPlayer(new Player("Second"));
+            game.setJournal(journal);
+            GameEngine engine = game.getEngine();
+            for (int round = 0; round < 5; round++) {
+                game.initializeCards(10 + random.nextInt(20), random.nextLong());
+                for (int step = 0; step < 2_000 && !engine.isGameOver(); step++) {
+                    game.flipCard(random.nextInt(engine.getCardCount()));
+                    if (game.isWaitingForFlipBack()) {
+                        game.flipCardsBack();
+                        game.endTurn();
+                    } else if (engine.getFirstCardIndex() < 0) {
+                        game.endTurn();
+                    }
+                    switch (random.nextInt(6)) {
+                        case 0 -> game.undo();
+                        case 1 -> game.redo();
+                        case 2 -> game.rewind(random.nextInt(game.lastTurnProperty().get() + 1));
+                        default -> {
+                            continue;
+                        }
+                    }
+                    rewinds++;
+                    live.put(journal.position(), state(engine));
+                }
+                live.put(journal.position(), state(engine));
+            }
+        }
+        assertTrue(rewinds > 1_000, "enough rewinds to catch a rescan per rewind");
+        assertReplayMatches(file, live);
+    }
+
+    @Test
+    void replayOfAResumedGameStartsFromTheSnapshot() throws IOException {
+        Random random = new Random(6);
+        MemoryGame saved = new MemoryGame();
+        saved.addPlayer(new Player("Second"));
+        saved.initializeCards(30, 11);
+        GameEngine savedEngine = saved.getEngine();
+        for (int step = 0; step < 40; step++) {
+            saved.flipCard(random.nextInt(savedEngine.getCardCount()));
+            if (saved.isWaitingForFlipBack()) {
+                saved.flipCardsBack();
+                saved.nextPlayer();
+            }
+        }
+        // Resumed with one card open
+        while (savedEngine.getFirstCardIndex() < 0) {
+            saved.flipCard(random.nextInt(savedEngine.getCardCount()));
+        }
+        GameSnapshot snapshot = saved.snapshot();
+
+        Path file = dir.resolve("resumed.journal");
+        Map<Long, String> live = new LinkedHashMap<>();
+        try (GameJournal journal = GameJournal.open(file)) {
+            MemoryGame game = new MemoryGame();
+            game.setJournal(journal);
+            game.restore(snapshot);
+            GameEngine engine = game.getEngine();
+            live.put(journal.position(), state(engine));
+            for (int step = 0; step < 200 && !engine.isGameOver(); step++) {
+                game.flipCard(random.nextInt(engine.getCardCount()));
+                if (game.isWaitingForFlipBack()) {
+                    game.flipCardsBack();
+                    game.nextPlayer();
+                    game.endTurn();
+                }
+                if (random.nextInt(8) == 0) {
+                    game.rewind(random.nextInt(game.lastTurnProperty().get() + 1));
+                }
+                live.put(journal.position(), state(engine));
+            }
+        }
+        assertReplayMatches(file, live);
+    }
+
+    @Test
+    void playerChangesFromOutsideAreReplayed() throws IOException {
+        Path file = dir.resolve("online.journal");
+        Map<Long, String> live = new LinkedHashMap<>();
+        try (GameJournal journal = GameJournal.open(file)) {
+            MemoryGame game = new MemoryGame();
+            game.addPlayer(new Player("Second"));
+            game.setJournal(journal);
+            // Like an online game: the server picks who starts and whose turn it is
+            game.initializeCards(8, 3, 1);
+            live.put(journal.position(), state(game.getEngine()));
+            game.setCurrentPlayer(0);
+            live.put(journal.position(), state(game.getEngine()));
+        }
+        assertReplayMatches(file, live);
+    }
+
+    private static void assertReplayMatches(Path file, Map<Long, String> live) throws IOException {
+        try (JournalReader reader = JournalReader.open(file)) {
+            for (Map.Entry<Long, String> entry : live.entrySet()) {
+                GameEngine replay = new GameEngine();
+                assertTrue(new JournalReplayer(replay).replayTo(reader, entry.getKey()));
+                assertEquals(entry.getValue(), state(replay), "at offset " + entry.getKey());
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameActorTest {
+    private static final int PRODUCERS = 8;
+    private static final int COMMANDS_PER_PRODUCER = 20_000;
+
+    @Test
+    void commandsOfEachProducerRunInOrderOnTheOwnerThread() throws Exception {
+        GameActor actor = GameActor.withOwnerThread(new MemoryGame(), "game-owner");
+        // Only touched by the owner thread
+        int[] nextExpected = new int[PRODUCERS];
+        List<String> errors = new ArrayList<>();
+
+        runProducers(producer -> {
+            for (int seq = 0; seq < COMMANDS_PER_PRODUCER; seq++) {
+                int command = seq;
+                actor.execute(() -> {
+                    if (!Thread.currentThread().getName().equals("game-owner")) {
+                        errors.add("ran on " + Thread.currentThread().getName());
+                    }
+                    if (nextExpected[producer] != command) {
+                        errors.add("producer " + producer + ": " + command + " after " + (nextExpected[producer] - 1));
+                    }
+                    nextExpected[producer] = command + 1;
+                });
+            }
+        });
+
+        // Queued after everything above, so it sees the final counts
+        int[] done = actor.submit(game -> nextExpected.clone()).get(30, TimeUnit.SECONDS);
+        assertEquals(List.of(), actor.submit(game -> List.copyOf(errors)).get(30, TimeUnit.SECONDS));
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            assertEquals(COMMANDS_PER_PRODUCER, done[producer], "producer " + producer);
+        }
+    }
+
+    @Test
+    void concurrentFlipsAreAppliedOneAtATime() throws Exception {
+        GameActor actor = GameActor.withOwnerThread(new MemoryGame(), "game-owner");
+        actor.newGame(5_000).get(30, TimeUnit.SECONDS);
+        List<List<CompletableFuture<GameActor.FlipResult>>> results = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            results.add(new ArrayList<>());
+        }
+
+        runProducers(producer -> {
+            Random random = new Random(producer);
+            List<CompletableFuture<GameActor.FlipResult>> mine = results.get(producer);
+            for (int i = 0; i < COMMANDS_PER_PRODUCER; i++) {
+                mine.add(actor.flip(random.nextInt(10_000)));
+                if (i % 2 == 1) {
+                    actor.flipBack();
+                }
+            }
+        });
+
+        int turns = 0;
+        int matches = 0;
+        for (List<CompletableFuture<GameActor.FlipResult>> producerResults : results) {
+            for (CompletableFuture<GameActor.FlipResult> result : producerResults) {
+                GameActor.FlipResult flip = result.get(30, TimeUnit.SECONDS);
+                if (flip == GameActor.FlipResult.MATCH) {
+                    matches++;
+                }
+                if (flip == GameActor.FlipResult.MATCH || flip == GameActor.FlipResult.MISMATCH) {
+                    turns++;
+                }
+            }
+        }
+        int[] engine = actor.submit(g -> new int[] {
+                g.getEngine().getTries(), g.getEngine().getMatchedPairs() }).get(30, TimeUnit.SECONDS);
+        assertTrue(turns > 0);
+        assertEquals(turns, engine[0], "every finished turn counted once");
+        assertEquals(matches, engine[1], "every match counted once");
+    }
+
+    @Test
+    void anErrorInOneCommandDoesNotStallTheOthers() throws Exception {
+        GameActor actor = GameActor.withOwnerThread(new MemoryGame(), "game-owner");
+        actor.execute(() -> {
+            throw new AssertionError("from execute");
+        });
+        CompletableFuture<Object> failed = actor.submit(game -> {
+            throw new StackOverflowError();
+        });
+
+        assertEquals(2, actor.submit(game -> 2).get(30, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(30, TimeUnit.SECONDS));
+        assertInstanceOf(StackOverflowError.class, e.getCause());
+    }
+
+    private interface Producer {
+        void run(int producer);
+    }
+
+    // Starts all producers at once and waits for them to finish submitting
+    private static void runProducers(Producer body) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            int index = producer;
+            threads.add(Thread.ofPlatform().name("producer-" + producer).start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                body.run(index);
+            }));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyCardListTest {
+
+    @Test
+    void aCardStillInUseFollowsTheBoardAfterItLeftTheCache() {
+        MemoryGame game = new MemoryGame(true);
+        game.initializeCards(1_000, 4);
+        List<Card> cards = game.getCards();
+        // Held like a cell holds its bound card
+        Card shown = cards.get(0);
+
+        for (int i = 1; i < cards.size(); i++) {
+            cards.get(i);
+        }
+        game.flipCard(0);
+
+        assertTrue(shown.isFlipped(), "the shown card is updated");
+        assertSame(shown, cards.get(0), "the same card is handed out again");
+
+        game.flipCardsBack();
+        assertFalse(shown.isFlipped());
+    }
+}
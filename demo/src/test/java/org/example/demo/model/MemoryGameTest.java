@@ -0,0 +1,61 @@
+package org.example.demo.model;
+
+import org.example.demo.engine.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MemoryGameTest {
+
+    // Finds every pair by value, so the only player wins all of them
+    private static void playPerfectGame(MemoryGame game) {
+        GameEngine engine = game.getEngine();
+        for (int first = 0; first < engine.getCardCount(); first++) {
+            for (int second = first + 1; second < engine.getCardCount() && !engine.isMatched(first); second++) {
+                if (engine.getValue(first) == engine.getValue(second)) {
+                    game.flipCard(first);
+                    game.flipCard(second);
+                    game.endTurn();
+                }
+            }
+        }
+    }
+
+    @Test
+    void undoAndRedoAfterTheGameIsOverKeepTheRecordedScore() {
+        MemoryGame game = new MemoryGame();
+        Player player = game.getPlayers().get(0);
+        game.initializeCards(2, 1);
+        playPerfectGame(game);
+        assertTrue(game.gameOverProperty().get());
+        assertEquals(2, player.getScore());
+
+        assertFalse(game.canUndo());
+        game.undo();
+        game.redo();
+        game.rewind(0);
+        assertFalse(game.isRewound(), "a finished game is not turned into practice");
+        assertEquals(2, player.getScore());
+
+        game.initializeCards(2, 2);
+        assertEquals(2, player.getScore());
+        assertEquals(0, player.getGamePairs());
+    }
+
+    @Test
+    void pairsOfAPracticeGameAreTakenOffAtTheNextGame() {
+        MemoryGame game = new MemoryGame();
+        Player player = game.getPlayers().get(0);
+        game.initializeCards(2, 1);
+        game.flipCard(0);
+        game.undo();
+        playPerfectGame(game);
+        assertTrue(game.isRewound());
+        assertEquals(2, player.getScore());
+
+        game.initializeCards(2, 2);
+        assertEquals(0, player.getScore());
+    }
+}
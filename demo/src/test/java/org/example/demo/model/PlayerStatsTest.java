@@ -0,0 +1,95 @@
+package org.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The running aggregates (Welford's update, in Java for the key-value
+// stores and in UPDATE_STATS_SQL for JDBC) against a direct computation
+// over the same games
+class PlayerStatsTest {
+    private static final int GAMES = 500;
+    private static final double TOLERANCE = 1e-9;
+
+    private record Played(double triesPerPair, boolean won, long durationMillis) {
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void jdbcStatsMatchDirectComputation() {
+        checkStore("jdbc");
+    }
+
+    @Test
+    void mvStoreStatsMatchDirectComputation() {
+        checkStore("mvstore");
+    }
+
+    @Test
+    void inMemoryStatsMatchDirectComputation() {
+        checkStore("memory");
+    }
+
+    private void checkStore(String store) {
+        Path base = dir.resolve("memory-game").toAbsolutePath();
+        Map<String, List<Played>> expected = new HashMap<>();
+        PlayerRepository repository = PlayerRepository.open(store, base);
+        try {
+            Random random = new Random(7);
+            for (int game = 0; game < GAMES; game++) {
+                int pairs = 8 + random.nextInt(10);
+                int tries = pairs + random.nextInt(30);
+                long duration = 10_000 + random.nextInt(100_000);
+                List<GameResult.Seat> seats = new ArrayList<>();
+                int seatCount = 1 + random.nextInt(3);
+                for (int seat = 0; seat < seatCount; seat++) {
+                    String name = "Player " + random.nextInt(5);
+                    boolean won = random.nextBoolean();
+                    boolean bot = random.nextInt(5) == 0;
+                    seats.add(new GameResult.Seat(name, random.nextInt(pairs), won, bot));
+                    if (!bot) {
+                        expected.computeIfAbsent(name, key -> new ArrayList<>())
+                                .add(new Played((double) tries / pairs, won, duration));
+                    }
+                }
+                repository.recordGame(new GameResult(System.currentTimeMillis(), pairs, tries, duration, seats));
+            }
+            if (!store.equals("memory")) {
+                // Flushes the background writer and reads back what was stored
+                repository.close();
+                repository = PlayerRepository.open(store, base);
+            }
+
+            for (Map.Entry<String, List<Played>> entry : expected.entrySet()) {
+                List<Played> games = entry.getValue();
+                double mean = games.stream().mapToDouble(Played::triesPerPair).average().orElse(0);
+                double variance = games.stream()
+                        .mapToDouble(played -> (played.triesPerPair() - mean) * (played.triesPerPair() - mean))
+                        .sum() / (games.size() - 1);
+                long best = games.stream().filter(Played::won)
+                        .mapToLong(Played::durationMillis).min().orElse(0);
+                long wins = games.stream().filter(Played::won).count();
+
+                PlayerStats stats = repository.getStats(entry.getKey());
+                String player = store + " " + entry.getKey();
+                assertEquals(games.size(), stats.games(), player);
+                assertEquals(wins, stats.wins(), player);
+                assertEquals(mean, stats.triesPerPairMean(), TOLERANCE, player);
+                assertEquals(variance, stats.triesPerPairVariance(), TOLERANCE, player);
+                assertEquals(best, stats.bestTimeMillis(), player);
+            }
+        } finally {
+            repository.close();
+        }
+    }
+}
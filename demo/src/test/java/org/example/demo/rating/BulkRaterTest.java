@@ -0,0 +1,69 @@
+package org.example.demo.rating;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BulkRaterTest {
+    private static final int GAMES = 200_000;
+    private static final int PLAYERS = 20_000;
+
+    // Random games of one to four seats, the same shape as BulkRater.main
+    private static RatingHistory randomHistory() {
+        SplittableRandom random = new SplittableRandom(42);
+        RatingHistory history = new RatingHistory();
+        for (int game = 0; game < GAMES; game++) {
+            int seats = 1 + random.nextInt(4);
+            for (int seat = 0; seat < seats; seat++) {
+                history.addSeat(game, "Player " + random.nextInt(PLAYERS), random.nextInt(9));
+            }
+        }
+        return history;
+    }
+
+    @Test
+    void roundsGiveTheSameRatingsAsASequentialReplay() {
+        RatingHistory history = randomHistory();
+        int largest = Arrays.stream(BulkRater.schedule(history)).mapToInt(round -> round.length).max().orElse(0);
+        assertTrue(largest >= 1024, "some rounds are large enough to run in parallel");
+
+        PlayerRating[] sequential = BulkRater.recomputeSequential(history, RatingParameters.DEFAULT);
+        PlayerRating[] inRounds = BulkRater.recomputeInRounds(history, RatingParameters.DEFAULT);
+
+        assertArrayEquals(sequential, inRounds);
+    }
+
+    @Test
+    void scheduleKeepsEachPlayersGamesInOrderAndApart() {
+        RatingHistory history = randomHistory();
+        int[][] rounds = BulkRater.schedule(history);
+
+        int[] roundOf = new int[history.gameCount()];
+        Arrays.fill(roundOf, -1);
+        for (int round = 0; round < rounds.length; round++) {
+            for (int game : rounds[round]) {
+                assertEquals(-1, roundOf[game], "game " + game + " scheduled once");
+                roundOf[game] = round;
+            }
+        }
+        // Every game comes after the previous game of each of its players
+        int[] lastRound = new int[history.playerCount()];
+        Arrays.fill(lastRound, -1);
+        for (int game = 0; game < history.gameCount(); game++) {
+            assertFalse(roundOf[game] < 0, "game " + game + " scheduled");
+            for (int seat = history.seatsStart(game); seat < history.seatsEnd(game); seat++) {
+                int player = history.player(seat);
+                assertTrue(roundOf[game] > lastRound[player], "game " + game + " after the last game of its players");
+            }
+            for (int seat = history.seatsStart(game); seat < history.seatsEnd(game); seat++) {
+                lastRound[history.player(seat)] = roundOf[game];
+            }
+        }
+    }
+}